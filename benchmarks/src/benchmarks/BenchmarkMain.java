@@ -0,0 +1,44 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * runs the benchmarks with the gc profiler (allocation rate) and stores the results as JSON.
+ * the first run writes the baseline file, every later run writes the current file and is compared against the baseline.
+ * usage: java -jar benchmarks.jar [jmh options], the system properties "baseline" and "current"
+ * override the default file names baseline.json and current.json
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Path baseline = Path.of(System.getProperty("baseline", "baseline.json"));
+        Path current = Path.of(System.getProperty("current", "current.json"));
+        Path output = Files.exists(baseline) ? current : baseline;
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(MatrixCalculationsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build();
+
+        new Runner(options).run();
+
+        if (output == current)
+            ResultComparison.compare(baseline, current, System.out);
+        else
+            System.out.println("Stored the baseline results in " + baseline.toAbsolutePath());
+    }
+}
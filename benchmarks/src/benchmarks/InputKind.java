@@ -0,0 +1,59 @@
+package benchmarks;
+
+import logic.Matrix;
+
+import java.util.Random;
+
+/**
+ * the kinds of operands the benchmarks run on
+ */
+public enum InputKind {
+    /**
+     * every value is drawn from a standard normal distribution
+     */
+    DENSE {
+        @Override
+        double value(int x, int y, int size, Random random) {
+            return random.nextGaussian();
+        }
+    },
+    /**
+     * about 1% of the values are nonzero, the diagonal is always nonzero so the matrix stays invertible
+     */
+    SPARSE {
+        @Override
+        double value(int x, int y, int size, Random random) {
+            if (x == y)
+                return 1 + random.nextDouble();
+            return random.nextDouble() < 0.01 ? random.nextGaussian() : 0;
+        }
+    },
+    /**
+     * a dense matrix whose rows are scaled from 1 down to 1e-10, so its condition number is about 1e10
+     */
+    ILL_CONDITIONED {
+        @Override
+        double value(int x, int y, int size, Random random) {
+            double scale = size == 1 ? 1 : Math.pow(10, -10.0 * y / (size - 1));
+            return scale * random.nextGaussian();
+        }
+    };
+
+    abstract double value(int x, int y, int size, Random random);
+
+    /**
+     * generate an operand of this kind, the same seed always generates the same operand
+     * @param width represents the width of the operand
+     * @param height represents the height of the operand
+     * @param seed represents the seed of the random values
+     * @return the generated operand
+     */
+    public Matrix create(int width, int height, long seed) {
+        Random random = new Random(seed);
+        Matrix result = new Matrix(width, height);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                result.set(x, y, value(x, y, Math.max(width, height), random));
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import logic.Matrix;
+import logic.MatrixCalculations;
+import logic.StrassenMultiplication;
+import logic.exceptions.MatrixOperationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * throughput of every operation of MatrixCalculations (and the Strassen multiplication) on square operands
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class MatrixCalculationsBenchmark {
+
+    @Param({"4", "16", "64", "256", "1024", "2048"})
+    public int size;
+
+    @Param({"DENSE", "SPARSE", "ILL_CONDITIONED"})
+    public InputKind kind;
+
+    private Matrix _left;
+    private Matrix _right;
+    private Matrix _vector;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        _left = kind.create(size, size, 1);
+        _right = kind.create(size, size, 2);
+        _vector = kind.create(1, size, 3);
+    }
+
+    @Benchmark
+    public Matrix add() throws MatrixOperationException {
+        return MatrixCalculations.add(_left, _right);
+    }
+
+    @Benchmark
+    public Matrix sub() throws MatrixOperationException {
+        return MatrixCalculations.sub(_left, _right);
+    }
+
+    @Benchmark
+    public Matrix multiply() throws MatrixOperationException {
+        return MatrixCalculations.multiply(_left, _right);
+    }
+
+    @Benchmark
+    public Matrix multiplyStrassen() {
+        return StrassenMultiplication.multiply(_left, _right);
+    }
+
+    @Benchmark
+    public Matrix multiplyScalar() {
+        return MatrixCalculations.multiply(_left, 2.5);
+    }
+
+    @Benchmark
+    public Matrix transpose() {
+        return MatrixCalculations.transpose(_left);
+    }
+
+    @Benchmark
+    public double det() throws MatrixOperationException {
+        return MatrixCalculations.det(_left);
+    }
+
+    @Benchmark
+    public Matrix rowEchelonForm() {
+        return MatrixCalculations.rowEchelonForm(_left);
+    }
+
+    @Benchmark
+    public Matrix reducedRowEchelonForm() {
+        return MatrixCalculations.reducedRowEchelonForm(_left);
+    }
+
+    @Benchmark
+    public Matrix invert() throws MatrixOperationException {
+        return MatrixCalculations.invert(_left);
+    }
+
+    @Benchmark
+    public Matrix adjoint() throws MatrixOperationException {
+        return MatrixCalculations.adjoint(_left);
+    }
+
+    @Benchmark
+    public Matrix normalize() throws MatrixOperationException {
+        return MatrixCalculations.normalize(_vector);
+    }
+}
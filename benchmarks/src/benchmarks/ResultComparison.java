@@ -0,0 +1,222 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * compares two JMH JSON result files benchmark by benchmark (and parameters by parameters).
+ * usage: java -cp benchmarks.jar benchmarks.ResultComparison baseline.json current.json
+ */
+public class ResultComparison {
+    // a change in throughput or allocation beyond this ratio is reported as a regression or an improvement
+    private static final double NOISE = 0.05;
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ResultComparison <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        compare(Path.of(args[0]), Path.of(args[1]), System.out);
+    }
+
+    /**
+     * print the throughput and allocation of every benchmark in the current results next to its baseline
+     * @param baseline represents the JSON results of the reference run
+     * @param current represents the JSON results of the run being checked
+     * @param out represents the stream to print the report to
+     */
+    public static void compare(Path baseline, Path current, PrintStream out) throws IOException {
+        Map<String, Map<?, ?>> before = index(baseline);
+        Map<String, Map<?, ?>> after = index(current);
+
+        out.printf("%-80s %14s %14s %8s %12s %12s %8s%n", "Benchmark", "Base ops/s", "Ops/s", "Ratio", "Base B/op", "B/op", "Ratio");
+        for (Map.Entry<String, Map<?, ?>> entry : after.entrySet()) {
+            Map<?, ?> now = entry.getValue();
+            Map<?, ?> then = before.get(entry.getKey());
+            if (then == null) {
+                out.printf("%-80s %s%n", entry.getKey(), "(no baseline)");
+                continue;
+            }
+
+            double score = score(now, null), baseScore = score(then, null);
+            double alloc = score(now, ALLOCATION_METRIC), baseAlloc = score(then, ALLOCATION_METRIC);
+            double scoreRatio = score / baseScore;
+            double allocRatio = alloc / baseAlloc;
+
+            String verdict = "";
+            if (scoreRatio < 1 - NOISE || allocRatio > 1 + NOISE)
+                verdict = "  REGRESSION";
+            else if (scoreRatio > 1 + NOISE || allocRatio < 1 - NOISE)
+                verdict = "  improvement";
+
+            out.printf("%-80s %14.3f %14.3f %8.3f %12.1f %12.1f %8.3f%s%n",
+                    entry.getKey(), baseScore, score, scoreRatio, baseAlloc, alloc, allocRatio, verdict);
+        }
+    }
+
+    // maps "benchmark{param=value, ...}" to the result object of every benchmark in the file
+    private static Map<String, Map<?, ?>> index(Path file) throws IOException {
+        Map<String, Map<?, ?>> result = new TreeMap<>();
+        for (Object o : (List<?>) new JsonParser(Files.readString(file)).parse()) {
+            Map<?, ?> run = (Map<?, ?>) o;
+            String name = (String) run.get("benchmark");
+            // keep only the class and method names
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            Object params = run.get("params");
+            result.put(name + (params == null ? "" : new TreeMap<>((Map<?, ?>) params).toString()), run);
+        }
+        return result;
+    }
+
+    // the primary score when metric is null, otherwise the score of the secondary metric (NaN if missing)
+    private static double score(Map<?, ?> run, String metric) {
+        Object m = metric == null ? run.get("primaryMetric") : ((Map<?, ?>) run.get("secondaryMetrics")).get(metric);
+        if (!(m instanceof Map<?, ?> map) || !(map.get("score") instanceof Number score))
+            return Double.NaN;
+        return score.doubleValue();
+    }
+
+    /**
+     * a minimal JSON reader for the JMH result files, objects become maps, arrays become lists,
+     * numbers become doubles (JMH writes "NaN" as a string, it becomes a string)
+     */
+    private static class JsonParser {
+        private final String _text;
+        private int _i;
+
+        JsonParser(String text) {
+            _text = text;
+        }
+
+        Object parse() {
+            Object result = value();
+            skipWhitespace();
+            if (_i != _text.length())
+                throw error("unexpected trailing content");
+            return result;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (_i >= _text.length())
+                throw error("unexpected end of input");
+
+            return switch (_text.charAt(_i)) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> number();
+            };
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            _i++;
+            skipWhitespace();
+            if (_text.charAt(_i) == '}') {
+                _i++;
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                result.put(key, value());
+                skipWhitespace();
+                if (_text.charAt(_i) == ',') {
+                    _i++;
+                    continue;
+                }
+                expect('}');
+                return result;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> result = new ArrayList<>();
+            _i++;
+            skipWhitespace();
+            if (_text.charAt(_i) == ']') {
+                _i++;
+                return result;
+            }
+            while (true) {
+                result.add(value());
+                skipWhitespace();
+                if (_text.charAt(_i) == ',') {
+                    _i++;
+                    continue;
+                }
+                expect(']');
+                return result;
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = _text.charAt(_i++);
+                if (c == '"')
+                    return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = _text.charAt(_i++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(_text.substring(_i, _i + 4), 16));
+                        _i += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+        }
+
+        private Double number() {
+            int start = _i;
+            while (_i < _text.length() && "+-0123456789.eE".indexOf(_text.charAt(_i)) != -1)
+                _i++;
+            if (start == _i)
+                throw error("unexpected character '" + _text.charAt(_i) + "'");
+            return Double.parseDouble(_text.substring(start, _i));
+        }
+
+        private Object literal(String word, Object value) {
+            if (!_text.startsWith(word, _i))
+                throw error("expected " + word);
+            _i += word.length();
+            return value;
+        }
+
+        private void expect(char c) {
+            if (_i >= _text.length() || _text.charAt(_i) != c)
+                throw error("expected '" + c + "'");
+            _i++;
+        }
+
+        private void skipWhitespace() {
+            while (_i < _text.length() && Character.isWhitespace(_text.charAt(_i)))
+                _i++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + _i);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import logic.BlockedMultiplication;
+import logic.Matrix;
+import logic.StrassenMultiplication;
+
+import java.io.PrintStream;
+
+/**
+ * reports the accuracy of StrassenMultiplication next to the classic kernel (BlockedMultiplication), both against
+ * a reference product whose dot products are summed with their rounding errors (correct to about the last bit).
+ * the normwise error is |C - ref| / (|m1| * |m2|) in the Frobenius norm, the componentwise error is the largest
+ * |C - ref| / (|m1| * |m2|) of a single entry (the absolute values of the operands multiplied).
+ * usage: java -cp benchmarks.jar benchmarks.StrassenAccuracy [cutoff] [sizes...], by default the cutoff is 64 so
+ * that the sizes 256, 512 and 1024 take 2 to 4 levels of recursion
+ */
+public class StrassenAccuracy {
+
+    public static void main(String[] args) {
+        int cutoff = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int[] sizes = {256, 512, 1024};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++)
+                sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+
+        StrassenMultiplication.setCutoff(cutoff);
+        report(sizes, System.out);
+    }
+
+    /**
+     * print the normwise and componentwise errors of both kernels for every kind of input and size
+     * @param sizes represents the sides of the square operands
+     * @param out represents the stream to print the report to
+     */
+    public static void report(int[] sizes, PrintStream out) {
+        out.printf("cutoff %d%n", StrassenMultiplication.getCutoff());
+        out.printf("%-16s %6s %14s %14s %14s %14s%n", "Input", "Size", "Classic norm", "Strassen norm", "Classic comp", "Strassen comp");
+        for (InputKind kind : InputKind.values())
+            for (int size : sizes) {
+                Matrix m1 = kind.create(size, size, 1), m2 = kind.create(size, size, 2);
+                double[][] reference = reference(m1, m2);
+                double[] classic = errors(BlockedMultiplication.multiply(m1, m2), reference, m1, m2);
+                double[] strassen = errors(StrassenMultiplication.multiply(m1, m2), reference, m1, m2);
+                out.printf("%-16s %6d %14.3e %14.3e %14.3e %14.3e%n", kind, size, classic[0], strassen[0], classic[1], strassen[1]);
+            }
+    }
+
+    // {normwise, componentwise} errors of a product against the reference
+    private static double[] errors(Matrix c, double[][] reference, Matrix m1, Matrix m2) {
+        int n = c.getHeight(), w = c.getWidth(), k = m1.getWidth();
+        double[][] abs1 = new double[n][k], abs2 = new double[k][w];
+        double norm1 = 0, norm2 = 0;
+        for (int y = 0; y < n; y++)
+            for (int i = 0; i < k; i++) {
+                abs1[y][i] = Math.abs(m1.get(i, y));
+                norm1 += abs1[y][i] * abs1[y][i];
+            }
+        for (int i = 0; i < k; i++)
+            for (int x = 0; x < w; x++) {
+                abs2[i][x] = Math.abs(m2.get(x, i));
+                norm2 += abs2[i][x] * abs2[i][x];
+            }
+
+        double error = 0, componentwise = 0;
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < w; x++) {
+                double difference = Math.abs(c.get(x, y) - reference[y][x]);
+                error += difference * difference;
+
+                double bound = 0;
+                for (int i = 0; i < k; i++)
+                    bound += abs1[y][i] * abs2[i][x];
+                if (bound > 0)
+                    componentwise = Math.max(componentwise, difference / bound);
+            }
+        return new double[]{Math.sqrt(error / (norm1 * norm2)), componentwise};
+    }
+
+    // the product with every dot product summed with its rounding errors (two-product and two-sum)
+    private static double[][] reference(Matrix m1, Matrix m2) {
+        int n = m1.getHeight(), k = m1.getWidth(), w = m2.getWidth();
+        double[][] a = new double[n][], bt = new double[w][k];
+        for (int y = 0; y < n; y++)
+            a[y] = m1.getRow(y);
+        for (int i = 0; i < k; i++)
+            for (int x = 0; x < w; x++)
+                bt[x][i] = m2.get(x, i);
+
+        double[][] result = new double[n][w];
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < w; x++) {
+                double sum = 0, error = 0;
+                double[] row = a[y], column = bt[x];
+                for (int i = 0; i < k; i++) {
+                    double product = row[i] * column[i];
+                    double productError = Math.fma(row[i], column[i], -product);
+                    double t = sum + product;
+                    double v = t - sum;
+                    error += productError + ((sum - (t - v)) + (product - v));
+                    sum = t;
+                }
+                result[y][x] = sum + error;
+            }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package logic;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * checks the selected (vector) kernels against the scalar Kernels over random runs of many lengths and offsets,
+ * including lengths that aren't a multiple of the vector width. the elementwise kernels (add, scale, axpy) must give
+ * bit-identical results, and so must maxAbs. the sums (sumOfSquares, sumOfAbs, dot, dot2x2) are rounded differently,
+ * each of them is within length * u * (the sum of the absolute terms) of the exact sum, where u is the unit roundoff,
+ * so the two must be within twice that of each other. it lives in the package logic to reach the package-private
+ * kernels.
+ * usage: java --add-modules jdk.incubator.vector -cp benchmarks.jar logic.KernelsAccuracy [runs], by default 200 runs
+ * per length. the exit status is 1 if a kernel is out of its bound or the vector kernels aren't selected
+ */
+public class KernelsAccuracy {
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65, 100, 1000, 4099};
+    private static final int MAX_OFFSET = 3;
+    private static final double UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        if (!"vector".equals(Kernels.getName())) {
+            System.out.println("the vector kernels aren't selected, run with --add-modules jdk.incubator.vector "
+                    + "and without -Dlogic.kernels=scalar");
+            System.exit(1);
+        }
+        if (!report(new Kernels(), Kernels.get(), runs, System.out))
+            System.exit(1);
+    }
+
+    /**
+     * compare every kernel of two implementations, print the largest difference of each and whether it is in its bound
+     * @param expected represents the reference kernels, the scalar ones
+     * @param actual represents the kernels checked against them
+     * @param runs represents the number of random inputs per length
+     * @param out represents the stream to print the report to
+     * @return whether every kernel is in its bound
+     */
+    public static boolean report(Kernels expected, Kernels actual, int runs, PrintStream out) {
+        Random random = new Random(1);
+        // the elementwise kernels count the differing runs, the sums keep their largest |difference| / (length * u * sum of |terms|)
+        int add = 0, scale = 0, axpy = 0, maxAbs = 0;
+        double sumOfSquares = 0, sumOfAbs = 0, dot = 0, dot2x2 = 0;
+        double[] sums1 = new double[4], sums2 = new double[4];
+
+        for (int length : LENGTHS)
+            for (int run = 0; run < runs; run++) {
+                int o1 = random.nextInt(MAX_OFFSET + 1), o2 = random.nextInt(MAX_OFFSET + 1);
+                double[] a = values(random, o1 + length), b = values(random, o2 + length);
+                double factor = values(random, 1)[0];
+
+                double[] c1 = new double[length], c2 = new double[length];
+                double[] x = Arrays.copyOfRange(a, o1, o1 + length), y = Arrays.copyOfRange(b, o2, o2 + length);
+                double sign = random.nextBoolean() ? 1 : -1;
+                expected.add(x, y, sign, c1, length);
+                actual.add(x, y, sign, c2, length);
+                if (!Arrays.equals(c1, c2))
+                    add++;
+
+                c1 = new double[o2 + length];
+                c2 = new double[o2 + length];
+                expected.scale(a, o1, factor, c1, o2, length);
+                actual.scale(a, o1, factor, c2, o2, length);
+                if (!Arrays.equals(c1, c2))
+                    scale++;
+
+                c1 = b.clone();
+                c2 = b.clone();
+                expected.axpy(factor, a, o1, c1, o2, length);
+                actual.axpy(factor, a, o1, c2, o2, length);
+                if (!Arrays.equals(c1, c2))
+                    axpy++;
+
+                if (Double.compare(expected.maxAbs(a, o1, length), actual.maxAbs(a, o1, length)) != 0)
+                    maxAbs++;
+
+                double squares = 0, abs = 0, products = 0;
+                for (int i = 0; i < length; i++) {
+                    squares += a[o1 + i] * a[o1 + i];
+                    abs += Math.abs(a[o1 + i]);
+                    products += Math.abs(a[o1 + i] * b[o2 + i]);
+                }
+                sumOfSquares = Math.max(sumOfSquares, error(expected.sumOfSquares(a, o1, length), actual.sumOfSquares(a, o1, length), length, squares));
+                sumOfAbs = Math.max(sumOfAbs, error(expected.sumOfAbs(a, o1, length), actual.sumOfAbs(a, o1, length), length, abs));
+                dot = Math.max(dot, error(expected.dot(a, o1, b, o2, 0, length), actual.dot(a, o1, b, o2, 0, length), length, products));
+
+                // two rows of each operand laid out one after the other, with a run of dot products over [from, to)
+                double[] p = values(random, 2 * (o1 + length)), q = values(random, 2 * (o1 + length));
+                int row = o1 + length;
+                expected.dot2x2(p, 0, row, q, 0, row, o1, row, sums1);
+                actual.dot2x2(p, 0, row, q, 0, row, o1, row, sums2);
+                int[][] rows = {{0, 0}, {0, row}, {row, 0}, {row, row}};
+                for (int s = 0; s < 4; s++) {
+                    double terms = 0;
+                    for (int i = o1; i < row; i++)
+                        terms += Math.abs(p[rows[s][0] + i] * q[rows[s][1] + i]);
+                    dot2x2 = Math.max(dot2x2, error(sums1[s], sums2[s], length, terms));
+                }
+            }
+
+        out.printf("%s against %s, %d runs per length, lengths up to %d%n", actual.name(), expected.name(), runs, LENGTHS[LENGTHS.length - 1]);
+        out.printf("%-14s %16s %8s%n", "Kernel", "Difference", "Result");
+        boolean passed = identical(out, "add", add, runs);
+        passed &= identical(out, "scale", scale, runs);
+        passed &= identical(out, "axpy", axpy, runs);
+        passed &= identical(out, "maxAbs", maxAbs, runs);
+        passed &= bounded(out, "sumOfSquares", sumOfSquares);
+        passed &= bounded(out, "sumOfAbs", sumOfAbs);
+        passed &= bounded(out, "dot", dot);
+        passed &= bounded(out, "dot2x2", dot2x2);
+        return passed;
+    }
+
+    // values of varied signs and magnitudes, so that the sums cancel and round
+    private static double[] values(Random random, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++)
+            values[i] = random.nextGaussian() * Math.pow(2, random.nextInt(21) - 10);
+        return values;
+    }
+
+    // |expected - actual| in units of length * u * the sum of the absolute terms, 2 at most for two such sums
+    private static double error(double expected, double actual, int length, double terms) {
+        double difference = Math.abs(expected - actual);
+        if (difference == 0)
+            return 0;
+        return difference / (length * UNIT_ROUNDOFF * terms);
+    }
+
+    private static boolean identical(PrintStream out, String kernel, int differing, int runs) {
+        out.printf("%-14s %16s %8s%n", kernel, differing + "/" + runs * LENGTHS.length + " runs", differing == 0 ? "ok" : "FAILED");
+        return differing == 0;
+    }
+
+    private static boolean bounded(PrintStream out, String kernel, double error) {
+        out.printf("%-14s %16.3e %8s%n", kernel, error, error <= 2 ? "ok" : "FAILED");
+        return error <= 2;
+    }
+}
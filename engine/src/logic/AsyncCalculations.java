@@ -0,0 +1,178 @@
+package logic;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * the operations of MatrixCalculations as jobs (see Job) running on an executor, with their progress, cancellation
+ * and timeouts. the factorizations (det, rank, the echelon forms, invert, adjoint and the solves), the products, power and
+ * diagonalize stop at their next step once their job is stopped, the rest of the operations only check it before
+ * they start. the operands must not be changed while a job that uses them runs.
+ * the default executor starts a daemon thread for every concurrent job and reuses the idle ones, for many concurrent
+ * small jobs an executor of virtual threads (Executors.newVirtualThreadPerTaskExecutor on Java 21) can be set instead:
+ * <pre>
+ * Job&lt;Matrix&gt; job = AsyncCalculations.invert(m).orTimeout(200, TimeUnit.MILLISECONDS);
+ * job.getFuture().thenAccept(...);
+ * </pre>
+ */
+public class AsyncCalculations {
+    private static volatile Executor _executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "matrix-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param executor represents the executor the jobs run on
+     */
+    public static void setExecutor(Executor executor){
+        if (executor == null)
+            throw new IllegalArgumentException("the executor must not be null");
+        _executor = executor;
+    }
+
+    public static Executor getExecutor(){
+        return _executor;
+    }
+
+    /**
+     * run a calculation as a job on the executor
+     * @param calculation represents the calculation, the operations it calls check the job
+     * @return the job of the calculation, its future completes exceptionally if the executor rejects it
+     */
+    public static <T> Job<T> submit(Callable<? extends T> calculation){
+        return submit(calculation, _executor);
+    }
+
+    /**
+     * run a calculation as a job on a given executor
+     * @param calculation represents the calculation, the operations it calls check the job
+     * @param executor represents the executor to run the job on
+     * @return the job of the calculation, its future completes exceptionally if the executor rejects it
+     */
+    public static <T> Job<T> submit(Callable<? extends T> calculation, Executor executor){
+        Job<T> job = new Job<>();
+        try {
+            executor.execute(() -> job.run(calculation));
+        } catch (RejectedExecutionException e) {
+            job.getFuture().completeExceptionally(e);
+        }
+        return job;
+    }
+
+    /**
+     * calculate the determinant of a given matrix (see MatrixCalculations.det)
+     * @param m represents the matrix operand
+     * @return the job of |m|
+     */
+    public static Job<Double> det(Matrix m){
+        return submit(() -> MatrixCalculations.det(m));
+    }
+
+    /**
+     * calculate the rank of a given matrix (see MatrixCalculations.rank)
+     * @param m represents the matrix operand
+     * @return the job of the rank of m
+     */
+    public static Job<Integer> rank(Matrix m){
+        return submit(() -> MatrixCalculations.rank(m));
+    }
+
+    /**
+     * calculate the row echelon form of a given matrix (see MatrixCalculations.rowEchelonForm)
+     * @param m represents the matrix operand
+     * @return the job of the row echelon form of m
+     */
+    public static Job<Matrix> rowEchelonForm(Matrix m){
+        return submit(() -> MatrixCalculations.rowEchelonForm(m));
+    }
+
+    /**
+     * calculate the reduced row echelon form of a given matrix (see MatrixCalculations.reducedRowEchelonForm)
+     * @param m represents the matrix operand
+     * @return the job of the reduced row echelon form of m
+     */
+    public static Job<Matrix> reducedRowEchelonForm(Matrix m){
+        return submit(() -> MatrixCalculations.reducedRowEchelonForm(m));
+    }
+
+    /**
+     * calculate the inverted matrix of m (see MatrixCalculations.invert)
+     * @param m represents the matrix operand
+     * @return the job of m^-1
+     */
+    public static Job<Matrix> invert(Matrix m){
+        return submit(() -> MatrixCalculations.invert(m));
+    }
+
+    /**
+     * calculate the adjoint matrix of m (see MatrixCalculations.adjoint)
+     * @param m represents the matrix operand
+     * @return the job of adj(m)
+     */
+    public static Job<Matrix> adjoint(Matrix m){
+        return submit(() -> MatrixCalculations.adjoint(m));
+    }
+
+    /**
+     * solve the set of linear equations m*X = b (see MatrixCalculations.solve)
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the job of X
+     */
+    public static Job<Matrix> solve(Matrix m, Matrix b){
+        return submit(() -> MatrixCalculations.solve(m, b));
+    }
+
+    /**
+     * solve the set of linear equations m*X = b of a symmetric positive definite m
+     * (see MatrixCalculations.solvePositiveDefinite)
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the job of X
+     */
+    public static Job<Matrix> solvePositiveDefinite(Matrix m, Matrix b){
+        return submit(() -> MatrixCalculations.solvePositiveDefinite(m, b));
+    }
+
+    /**
+     * solve the least squares problem of m*X = b (see MatrixCalculations.lstsq)
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the job of the least squares solution X
+     */
+    public static Job<Matrix> lstsq(Matrix m, Matrix b){
+        return submit(() -> MatrixCalculations.lstsq(m, b));
+    }
+
+    /**
+     * calculate the result of multiplication between two matrices (see MatrixCalculations.multiply)
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the job of m1*m2
+     */
+    public static Job<Matrix> multiply(Matrix m1, Matrix m2){
+        return submit(() -> MatrixCalculations.multiply(m1, m2));
+    }
+
+    /**
+     * calculate the power of a squared matrix (see MatrixCalculations.power)
+     * @param m represents the matrix operand
+     * @param k represents the exponent
+     * @return the job of m^k
+     */
+    public static Job<Matrix> power(Matrix m, long k){
+        return submit(() -> MatrixCalculations.power(m, k));
+    }
+
+    /**
+     * calculate the similar diagonal matrix of m (see MatrixCalculations.diagonalize)
+     * @param m represents the matrix operand
+     * @return the job of the diagonal matrix of the eigenvalues of m
+     */
+    public static Job<Matrix> diagonalize(Matrix m){
+        return submit(() -> MatrixCalculations.diagonalize(m));
+    }
+}
@@ -0,0 +1,342 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+/**
+ * operations over whole batches of small matrices (see MatrixBatch). the determinant and the inverse have unrolled
+ * kernels for 2x2, 3x3 and 4x4 matrices (and go through LU for larger ones), the product and the transpose are
+ * calculated for all the matrices of the batch at once. large batches are split into ranges of matrices that are
+ * calculated in parallel, on the pool of BlockedMultiplication
+ */
+public class BatchCalculations {
+    // the amount of matrices the product kernel walks at a time
+    private static final int TILE = 256;
+    private static volatile int _parallelThreshold = 1 << 14;
+
+    /**
+     * @param threshold represents the amount of matrices below which a batch is calculated on the calling thread
+     */
+    public static void setParallelThreshold(int threshold){
+        if (threshold < 1)
+            throw new IllegalArgumentException("the parallel threshold must be positive");
+        _parallelThreshold = threshold;
+    }
+
+    public static int getParallelThreshold(){
+        return _parallelThreshold;
+    }
+
+    /**
+     * calculate the determinants of a batch of squared matrices
+     * @param batch represents the matrices
+     * @return the determinant of every matrix, in the order of the batch
+     * @throws NonSquareMatrixException in case the matrices aren't squared
+     */
+    public static double[] det(MatrixBatch batch) throws NonSquareMatrixException {
+        double[] result = new double[batch.getCount()];
+        det(batch, result);
+        return result;
+    }
+
+    /**
+     * calculate the determinants of a batch of squared matrices into a given array
+     * @param batch represents the matrices
+     * @param dst represents the array to write the determinants into, it must hold a value for every matrix
+     * @throws NonSquareMatrixException in case the matrices aren't squared
+     */
+    public static void det(MatrixBatch batch, double[] dst) throws NonSquareMatrixException {
+        if (batch.getWidth() != batch.getHeight())
+            throw new NonSquareMatrixException();
+        if (dst.length < batch.getCount())
+            throw new IllegalArgumentException("the array holds " + dst.length + " values for " + batch.getCount() + " matrices");
+
+        double[] a = batch.getData();
+        int n = batch.getCount();
+        switch (batch.getWidth()) {
+            case 1 -> System.arraycopy(a, 0, dst, 0, n);
+            case 2 -> run(n, (from, to) -> det2(a, n, dst, from, to));
+            case 3 -> run(n, (from, to) -> det3(a, n, dst, from, to));
+            case 4 -> run(n, (from, to) -> det4(a, n, dst, from, to));
+            default -> run(n, (from, to) -> {
+                try {
+                    for (int b = from; b < to; b++)
+                        dst[b] = new LUDecomposition(batch.getMatrix(b)).det();
+                } catch (NonSquareMatrixException e) {
+                    // the batch was checked to be squared
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * calculate the inverses of a batch of squared matrices. the batch isn't checked for singular matrices,
+     * the inverse of a singular matrix holds infinite or NaN values (its determinant is 0)
+     * @param batch represents the matrices
+     * @return the inverse of every matrix, in the order of the batch
+     * @throws NonSquareMatrixException in case the matrices aren't squared
+     */
+    public static MatrixBatch invert(MatrixBatch batch) throws NonSquareMatrixException {
+        MatrixBatch result = new MatrixBatch(batch.getWidth(), batch.getHeight(), batch.getCount());
+        try {
+            return invert(batch, result);
+        } catch (IncompatibleDimensionsException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * calculate the inverses of a batch of squared matrices into a given batch, see invert(MatrixBatch)
+     * @param batch represents the matrices
+     * @param dst represents the batch to write the inverses into, it may be the batch itself
+     * @return dst, holding the inverse of every matrix
+     * @throws NonSquareMatrixException in case the matrices aren't squared
+     * @throws IncompatibleDimensionsException in case dst doesn't have the shape and count of the batch
+     */
+    public static MatrixBatch invert(MatrixBatch batch, MatrixBatch dst) throws NonSquareMatrixException, IncompatibleDimensionsException {
+        if (batch.getWidth() != batch.getHeight())
+            throw new NonSquareMatrixException();
+        requireShape(dst, batch.getWidth(), batch.getHeight(), batch.getCount());
+
+        // every kernel reads all the values of a matrix before it writes its inverse, so dst may be the batch itself
+        double[] a = batch.getData(), c = dst.getData();
+        int n = batch.getCount();
+        switch (batch.getWidth()) {
+            case 1 -> run(n, (from, to) -> {
+                for (int b = from; b < to; b++)
+                    c[b] = 1 / a[b];
+            });
+            case 2 -> run(n, (from, to) -> invert2(a, c, n, from, to));
+            case 3 -> run(n, (from, to) -> invert3(a, c, n, from, to));
+            case 4 -> run(n, (from, to) -> invert4(a, c, n, from, to));
+            default -> run(n, (from, to) -> {
+                for (int b = from; b < to; b++) {
+                    try {
+                        dst.setMatrix(b, new LUDecomposition(batch.getMatrix(b)).inverse());
+                    } catch (NonInvertibleMatrixException e) {
+                        for (int i = 0; i < batch.getWidth() * batch.getHeight(); i++)
+                            c[i * n + b] = Double.NaN;
+                    } catch (NonSquareMatrixException e) {
+                        // the batch was checked to be squared
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        }
+
+        return dst;
+    }
+
+    /**
+     * calculate the products of two batches, matrix by matrix
+     * @param b1 represents the left (first) operands
+     * @param b2 represents the right (second) operands
+     * @return the batch of b1[i]*b2[i]
+     * @throws IncompatibleDimensionsException in case the width of b1 isn't the height of b2, or the batches
+     * don't hold the same amount of matrices
+     */
+    public static MatrixBatch multiply(MatrixBatch b1, MatrixBatch b2) throws IncompatibleDimensionsException {
+        return multiply(b1, b2, new MatrixBatch(b2.getWidth(), b1.getHeight(), b1.getCount()));
+    }
+
+    /**
+     * calculate the products of two batches, matrix by matrix, into a given batch
+     * @param b1 represents the left (first) operands
+     * @param b2 represents the right (second) operands
+     * @param dst represents the batch to write the products into, it may be b1 or b2 themselves
+     * @return dst, holding b1[i]*b2[i]
+     * @throws IncompatibleDimensionsException in case the width of b1 isn't the height of b2, the batches don't hold
+     * the same amount of matrices, or dst doesn't have the shape and count of the products
+     */
+    public static MatrixBatch multiply(MatrixBatch b1, MatrixBatch b2, MatrixBatch dst) throws IncompatibleDimensionsException {
+        int n = b1.getCount(), h = b1.getHeight(), k = b1.getWidth(), w = b2.getWidth();
+        if (k != b2.getHeight() || n != b2.getCount())
+            throw new IncompatibleDimensionsException();
+        requireShape(dst, w, h, n);
+
+        // the products are summed while the operands are read, so an aliased dst gets them only at the end
+        MatrixBatch target = dst == b1 || dst == b2 ? new MatrixBatch(w, h, n) : dst;
+        double[] a = b1.getData(), bb = b2.getData(), c = target.getData();
+
+        // the range is walked in tiles of matrices, so the values of a tile stay in the cache across the sums
+        run(n, (from, to) -> {
+            for (int first = from; first < to; first += TILE) {
+                int last = Math.min(first + TILE, to);
+                for (int y = 0; y < h; y++)
+                    for (int x = 0; x < w; x++) {
+                        int ci = (y * w + x) * n;
+                        for (int i = 0; i < k; i++) {
+                            int ai = (y * k + i) * n, bi = (i * w + x) * n;
+                            if (i == 0)
+                                for (int b = first; b < last; b++)
+                                    c[ci + b] = a[ai + b] * bb[bi + b];
+                            else
+                                for (int b = first; b < last; b++)
+                                    c[ci + b] += a[ai + b] * bb[bi + b];
+                        }
+                    }
+            }
+        });
+
+        if (target != dst)
+            System.arraycopy(c, 0, dst.getData(), 0, c.length);
+        return dst;
+    }
+
+    /**
+     * calculate the transposes of a batch
+     * @param batch represents the matrices
+     * @return the batch of the transposed matrices
+     */
+    public static MatrixBatch transpose(MatrixBatch batch){
+        MatrixBatch result = new MatrixBatch(batch.getHeight(), batch.getWidth(), batch.getCount());
+        try {
+            return transpose(batch, result);
+        } catch (IncompatibleDimensionsException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * calculate the transposes of a batch into a given batch. the value (x, y) of all the matrices is a single
+     * contiguous run, so this is a copy of every run to its transposed position
+     * @param batch represents the matrices
+     * @param dst represents the batch to write the transposes into, it may be the batch itself if it is squared
+     * @return dst, holding the transposed matrices
+     * @throws IncompatibleDimensionsException in case dst doesn't have the transposed shape and the count of the batch
+     */
+    public static MatrixBatch transpose(MatrixBatch batch, MatrixBatch dst) throws IncompatibleDimensionsException {
+        int n = batch.getCount(), w = batch.getWidth(), h = batch.getHeight();
+        requireShape(dst, h, w, n);
+
+        double[] a = batch.getData(), c = dst.getData();
+        if (dst == batch) {
+            // swap the runs across the diagonal
+            for (int y = 0; y < h; y++)
+                for (int x = y + 1; x < w; x++) {
+                    int i = (y * w + x) * n, j = (x * w + y) * n;
+                    for (int b = 0; b < n; b++) {
+                        double temp = a[i + b];
+                        a[i + b] = a[j + b];
+                        a[j + b] = temp;
+                    }
+                }
+        } else {
+            for (int y = 0; y < h; y++)
+                for (int x = 0; x < w; x++)
+                    System.arraycopy(a, (y * w + x) * n, c, (x * h + y) * n, n);
+        }
+
+        return dst;
+    }
+
+    private static void det2(double[] a, int n, double[] dst, int from, int to){
+        for (int b = from; b < to; b++)
+            dst[b] = a[b] * a[3 * n + b] - a[n + b] * a[2 * n + b];
+    }
+
+    private static void det3(double[] a, int n, double[] dst, int from, int to){
+        for (int b = from; b < to; b++) {
+            double m00 = a[b], m01 = a[n + b], m02 = a[2 * n + b];
+            double m10 = a[3 * n + b], m11 = a[4 * n + b], m12 = a[5 * n + b];
+            double m20 = a[6 * n + b], m21 = a[7 * n + b], m22 = a[8 * n + b];
+            dst[b] = m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20);
+        }
+    }
+
+    private static void det4(double[] a, int n, double[] dst, int from, int to){
+        for (int b = from; b < to; b++) {
+            double m00 = a[b], m01 = a[n + b], m02 = a[2 * n + b], m03 = a[3 * n + b];
+            double m10 = a[4 * n + b], m11 = a[5 * n + b], m12 = a[6 * n + b], m13 = a[7 * n + b];
+            double m20 = a[8 * n + b], m21 = a[9 * n + b], m22 = a[10 * n + b], m23 = a[11 * n + b];
+            double m30 = a[12 * n + b], m31 = a[13 * n + b], m32 = a[14 * n + b], m33 = a[15 * n + b];
+
+            // the 2x2 minors of the top two rows and of the bottom two rows (laplace expansion by two rows)
+            double s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03;
+            double s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+            double c5 = m22 * m33 - m32 * m23, c4 = m21 * m33 - m31 * m23, c3 = m21 * m32 - m31 * m22;
+            double c2 = m20 * m33 - m30 * m23, c1 = m20 * m32 - m30 * m22, c0 = m20 * m31 - m30 * m21;
+            dst[b] = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        }
+    }
+
+    private static void invert2(double[] a, double[] c, int n, int from, int to){
+        for (int b = from; b < to; b++) {
+            double m00 = a[b], m01 = a[n + b], m10 = a[2 * n + b], m11 = a[3 * n + b];
+            double inv = 1 / (m00 * m11 - m01 * m10);
+            c[b] = m11 * inv;
+            c[n + b] = -m01 * inv;
+            c[2 * n + b] = -m10 * inv;
+            c[3 * n + b] = m00 * inv;
+        }
+    }
+
+    private static void invert3(double[] a, double[] c, int n, int from, int to){
+        for (int b = from; b < to; b++) {
+            double m00 = a[b], m01 = a[n + b], m02 = a[2 * n + b];
+            double m10 = a[3 * n + b], m11 = a[4 * n + b], m12 = a[5 * n + b];
+            double m20 = a[6 * n + b], m21 = a[7 * n + b], m22 = a[8 * n + b];
+
+            // the adjoint, its first column doubles as the cofactors of the first row of m
+            double i00 = m11 * m22 - m12 * m21, i01 = m02 * m21 - m01 * m22, i02 = m01 * m12 - m02 * m11;
+            double i10 = m12 * m20 - m10 * m22, i11 = m00 * m22 - m02 * m20, i12 = m02 * m10 - m00 * m12;
+            double i20 = m10 * m21 - m11 * m20, i21 = m01 * m20 - m00 * m21, i22 = m00 * m11 - m01 * m10;
+            double inv = 1 / (m00 * i00 + m01 * i10 + m02 * i20);
+
+            c[b] = i00 * inv;
+            c[n + b] = i01 * inv;
+            c[2 * n + b] = i02 * inv;
+            c[3 * n + b] = i10 * inv;
+            c[4 * n + b] = i11 * inv;
+            c[5 * n + b] = i12 * inv;
+            c[6 * n + b] = i20 * inv;
+            c[7 * n + b] = i21 * inv;
+            c[8 * n + b] = i22 * inv;
+        }
+    }
+
+    private static void invert4(double[] a, double[] c, int n, int from, int to){
+        for (int b = from; b < to; b++) {
+            double m00 = a[b], m01 = a[n + b], m02 = a[2 * n + b], m03 = a[3 * n + b];
+            double m10 = a[4 * n + b], m11 = a[5 * n + b], m12 = a[6 * n + b], m13 = a[7 * n + b];
+            double m20 = a[8 * n + b], m21 = a[9 * n + b], m22 = a[10 * n + b], m23 = a[11 * n + b];
+            double m30 = a[12 * n + b], m31 = a[13 * n + b], m32 = a[14 * n + b], m33 = a[15 * n + b];
+
+            // the 2x2 minors of the top two rows and of the bottom two rows, every cofactor is a sum of three of them
+            double s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03;
+            double s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+            double c5 = m22 * m33 - m32 * m23, c4 = m21 * m33 - m31 * m23, c3 = m21 * m32 - m31 * m22;
+            double c2 = m20 * m33 - m30 * m23, c1 = m20 * m32 - m30 * m22, c0 = m20 * m31 - m30 * m21;
+            double inv = 1 / (s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0);
+
+            c[b] = (m11 * c5 - m12 * c4 + m13 * c3) * inv;
+            c[n + b] = (-m01 * c5 + m02 * c4 - m03 * c3) * inv;
+            c[2 * n + b] = (m31 * s5 - m32 * s4 + m33 * s3) * inv;
+            c[3 * n + b] = (-m21 * s5 + m22 * s4 - m23 * s3) * inv;
+            c[4 * n + b] = (-m10 * c5 + m12 * c2 - m13 * c1) * inv;
+            c[5 * n + b] = (m00 * c5 - m02 * c2 + m03 * c1) * inv;
+            c[6 * n + b] = (-m30 * s5 + m32 * s2 - m33 * s1) * inv;
+            c[7 * n + b] = (m20 * s5 - m22 * s2 + m23 * s1) * inv;
+            c[8 * n + b] = (m10 * c4 - m11 * c2 + m13 * c0) * inv;
+            c[9 * n + b] = (-m00 * c4 + m01 * c2 - m03 * c0) * inv;
+            c[10 * n + b] = (m30 * s4 - m31 * s2 + m33 * s0) * inv;
+            c[11 * n + b] = (-m20 * s4 + m21 * s2 - m23 * s0) * inv;
+            c[12 * n + b] = (-m10 * c3 + m11 * c1 - m12 * c0) * inv;
+            c[13 * n + b] = (m00 * c3 - m01 * c1 + m02 * c0) * inv;
+            c[14 * n + b] = (-m30 * s3 + m31 * s1 - m32 * s0) * inv;
+            c[15 * n + b] = (m20 * s3 - m21 * s1 + m22 * s0) * inv;
+        }
+    }
+
+    private static void requireShape(MatrixBatch batch, int width, int height, int count) throws IncompatibleDimensionsException {
+        if (batch.getWidth() != width || batch.getHeight() != height || batch.getCount() != count)
+            throw new IncompatibleDimensionsException();
+    }
+
+    // run a kernel over the matrices [0, count), split into parallel ranges if the batch is large enough
+    private static void run(int count, RangeTask.Action kernel){
+        RangeTask.run(0, count, _parallelThreshold, kernel);
+    }
+}
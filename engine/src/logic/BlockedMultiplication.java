@@ -0,0 +1,212 @@
+package logic;
+
+import logic.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * cache blocked matrix multiplication, the right operand is packed transposed so that both operands
+ * are read along contiguous rows, and the tiles of the result are computed in parallel on a fork-join pool
+ */
+public class BlockedMultiplication {
+    private static volatile int _blockSize = 64;
+    private static volatile long _threshold = 64L * 64 * 64;
+    private static volatile ForkJoinPool _pool = ForkJoinPool.commonPool();
+
+    /**
+     * @param blockSize represents the side of the square tiles the operands are split into
+     */
+    public static void setBlockSize(int blockSize){
+        if (blockSize < 2)
+            throw new IllegalArgumentException("block size must be at least 2");
+        _blockSize = blockSize;
+    }
+
+    public static int getBlockSize(){
+        return _blockSize;
+    }
+
+    /**
+     * @param threshold represents the amount of multiply-adds (height * width of m1 * width of m2)
+     *                  below which the simple loop is used instead of the blocked kernel
+     */
+    public static void setThreshold(long threshold){
+        _threshold = threshold;
+    }
+
+    public static long getThreshold(){
+        return _threshold;
+    }
+
+    /**
+     * @param pool represents the pool the tiles are computed on, the common pool by default
+     */
+    public static void setPool(ForkJoinPool pool){
+        _pool = pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    public static ForkJoinPool getPool(){
+        return _pool;
+    }
+
+    /**
+     * calculate the result of multiplication between two matrices of compatible dimensions
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand, its height must equal the width of m1
+     * @return the result of m1*m2
+     */
+    public static Matrix multiply(Matrix m1, Matrix m2){
+        Matrix result = new Matrix(m2.getWidth(), m1.getHeight());
+        multiplyAdd(m1, m2, 1, result);
+        return result;
+    }
+
+    /**
+     * calculate the result of multiplication between two matrices with a plain i-k-j loop,
+     * used for matrices too small for the tiling and threads to pay off
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand, its height must equal the width of m1
+     * @return the result of m1*m2
+     */
+    public static Matrix multiplySimple(Matrix m1, Matrix m2){
+        Matrix result = new Matrix(m2.getWidth(), m1.getHeight());
+        multiplyAddSimple(m1, m2, 1, result);
+        return result;
+    }
+
+    /**
+     * accumulate a scaled product into a given matrix, dst := dst + alpha*m1*m2. the scalar is applied to the sums
+     * of the tiles, so it costs nothing on top of the product
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand, its height must equal the width of m1
+     * @param alpha represents the scalar the product is multiplied by
+     * @param dst represents a row major matrix with the height of m1 and the width of m2, that isn't an operand
+     */
+    static void multiplyAdd(Matrix m1, Matrix m2, double alpha, Matrix dst){
+        int n = m1.getHeight(), k = m1.getWidth(), w = m2.getWidth();
+
+        if ((long) n * k * w < _threshold) {
+            multiplyAddSimple(m1, m2, alpha, dst);
+            return;
+        }
+
+        double[] a = Matrix.rowMajor(m1).getData();
+        // reading m2 in column major order is the same as reading m2^t in row major order
+        double[] bt = m2.getLayout() == Matrix.Layout.COLUMN_MAJOR ? m2.getData() : new Matrix(m2, Matrix.Layout.COLUMN_MAJOR).getData();
+        double[] c = dst.getData();
+
+        int blockSize = _blockSize;
+        int rowBlocks = (n + blockSize - 1) / blockSize;
+        // the row blocks run on the threads of the pool, so they are given the job of the calling thread
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(rowBlocks);
+        _pool.invoke(new RowBlocksTask(a, bt, c, n, k, w, alpha, blockSize, 0, rowBlocks, job, Metrics.current()));
+    }
+
+    /**
+     * calculate the product of two matrices into a given matrix, overwriting it, for products that are repeated on
+     * the same buffers (see MatrixCalculations.power)
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand, in row major order
+     * @param m2t represents the same matrix as m2 in column major order, the packed right operand of the blocked
+     *            kernel, so it isn't packed again on every product
+     * @param dst represents a row major matrix with the height of m1 and the width of m2, that isn't an operand
+     */
+    static void multiply(Matrix m1, Matrix m2, Matrix m2t, Matrix dst){
+        Arrays.fill(dst.getData(), 0);
+        boolean isSimple = (long) m1.getHeight() * m1.getWidth() * m2.getWidth() < _threshold;
+        multiplyAdd(m1, isSimple ? m2 : m2t, 1, dst);
+    }
+
+    private static void multiplyAddSimple(Matrix m1, Matrix m2, double alpha, Matrix dst){
+        int n = m1.getHeight(), k = m1.getWidth(), w = m2.getWidth();
+        double[] a = Matrix.rowMajor(m1).getData(), b = Matrix.rowMajor(m2).getData();
+        double[] c = dst.getData();
+        Kernels kernels = Kernels.get();
+
+        // i-k-j order so that the inner loop walks rows of m2 and of the result contiguously
+        for (int y = 0; y < n; y++)
+            for (int i = 0; i < k; i++) {
+                kernels.axpy(alpha * a[y * k + i], b, i * w, c, y * w, w);
+            }
+    }
+
+    // splits the row blocks of the result in halves until a single row block is left
+    private static class RowBlocksTask extends RecursiveAction {
+        private final double[] _a, _bt, _c;
+        private final int _n, _k, _w, _blockSize, _from, _to;
+        private final double _alpha;
+        private final Job<?> _job;
+        private final Metrics.Timer _timer;
+        // the sums of the 2x2 micro kernel, every task has its own
+        private final double[] _sums = new double[4];
+
+        RowBlocksTask(double[] a, double[] bt, double[] c, int n, int k, int w, double alpha, int blockSize, int from, int to, Job<?> job, Metrics.Timer timer){
+            _a = a;
+            _bt = bt;
+            _c = c;
+            _n = n;
+            _k = k;
+            _w = w;
+            _alpha = alpha;
+            _blockSize = blockSize;
+            _from = from;
+            _to = to;
+            _job = job;
+            _timer = timer;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected void compute() {
+            if (_to - _from > 1) {
+                int mid = (_from + _to) >>> 1;
+                invokeAll(new RowBlocksTask(_a, _bt, _c, _n, _k, _w, _alpha, _blockSize, _from, mid, _job, _timer),
+                        new RowBlocksTask(_a, _bt, _c, _n, _k, _w, _alpha, _blockSize, mid, _to, _job, _timer));
+                return;
+            }
+
+            if (_job != null)
+                _job.checkpoint();
+            int y0 = _from * _blockSize, y1 = Math.min(y0 + _blockSize, _n);
+            try (Metrics.Span span = Metrics.join(_timer)) {
+                for (int x0 = 0; x0 < _w; x0 += _blockSize)
+                    for (int i0 = 0; i0 < _k; i0 += _blockSize)
+                        tile(y0, y1, x0, Math.min(x0 + _blockSize, _w), i0, Math.min(i0 + _blockSize, _k));
+            }
+            if (_job != null)
+                _job.advance(1);
+        }
+
+        // c[y0..y1, x0..x1] += alpha * a[y0..y1, i0..i1] * b[i0..i1, x0..x1], two rows by two columns at a time
+        private void tile(int y0, int y1, int x0, int x1, int i0, int i1){
+            double[] a = _a, bt = _bt, c = _c, sums = _sums;
+            double alpha = _alpha;
+            int k = _k, w = _w;
+            Kernels kernels = Kernels.get();
+
+            int y = y0;
+            for (; y + 1 < y1; y += 2) {
+                int a0 = y * k, a1 = a0 + k;
+                int x = x0;
+                for (; x + 1 < x1; x += 2) {
+                    kernels.dot2x2(a, a0, a1, bt, x * k, (x + 1) * k, i0, i1, sums);
+                    c[y * w + x] += alpha * sums[0];
+                    c[y * w + x + 1] += alpha * sums[1];
+                    c[(y + 1) * w + x] += alpha * sums[2];
+                    c[(y + 1) * w + x + 1] += alpha * sums[3];
+                }
+                if (x < x1) {
+                    c[y * w + x] += alpha * kernels.dot(a, a0, bt, x * k, i0, i1);
+                    c[(y + 1) * w + x] += alpha * kernels.dot(a, a1, bt, x * k, i0, i1);
+                }
+            }
+            if (y < y1)
+                for (int x = x0; x < x1; x++)
+                    c[y * w + x] += alpha * kernels.dot(a, y * k, bt, x * k, i0, i1);
+        }
+    }
+}
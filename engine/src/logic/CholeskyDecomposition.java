@@ -0,0 +1,246 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonSquareMatrixException;
+import logic.exceptions.NotPositiveDefiniteMatrixException;
+
+import java.util.Arrays;
+
+/**
+ * the cholesky decomposition m = L*L^t of a symmetric positive definite matrix, with L lower triangular. it takes
+ * half the operations of the LU decomposition and needs no pivoting. only the lower triangle of m is read, the
+ * upper one is assumed to mirror it. the factorization is blocked like LUDecomposition: a block of columns is
+ * factorized on its own, and then the rest of the lower triangle gets the whole block in a single pass over its
+ * rows, split between threads if it is large enough. the decomposition is immutable, so it can solve any amount of
+ * right hand sides (see solve), and its rank-1 updates (see update and downdate) give new decompositions
+ */
+public class CholeskyDecomposition {
+    private static final int BLOCK_SIZE = 32;
+
+    // the rows of L, zero above the diagonal
+    private final double[][] _l;
+    private final int _n;
+    private final boolean _isPositiveDefinite;
+
+    /**
+     * factorize a given matrix
+     * @param m represents the matrix operand, it is not modified
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public CholeskyDecomposition(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        _n = m.getWidth();
+        _l = new double[_n][];
+        for (int y = 0; y < _n; y++) {
+            _l[y] = m.getRow(y);
+            Arrays.fill(_l[y], y + 1, _n, 0);
+        }
+        _isPositiveDefinite = factorize();
+    }
+
+    // a decomposition of the given factor
+    private CholeskyDecomposition(double[][] l, boolean isPositiveDefinite){
+        _l = l;
+        _n = l.length;
+        _isPositiveDefinite = isPositiveDefinite;
+    }
+
+    // the blocked right-looking factorization, returns false once a pivot isn't positive
+    private boolean factorize(){
+        Kernels kernels = Kernels.get();
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(_n);
+
+        for (int c0 = 0; c0 < _n; c0 += BLOCK_SIZE) {
+            int c1 = Math.min(c0 + BLOCK_SIZE, _n);
+
+            // the columns of the block, for all the rows below the diagonal
+            for (int j = c0; j < c1; j++) {
+                double pivot = _l[j][j];
+                if (!(pivot > 0))
+                    return false;
+
+                double root = Math.sqrt(pivot);
+                _l[j][j] = root;
+                for (int i = j + 1; i < _n; i++) {
+                    double[] r = _l[i];
+                    double value = r[j] /= root;
+                    if (value != 0)
+                        for (int q = j + 1; q < Math.min(i + 1, c1); q++)
+                            r[q] -= value * _l[q][j];
+                }
+            }
+
+            if (c1 < _n) {
+                int first = c0, last = c1;
+                // the columns of the block below it, transposed so that every one is contiguous
+                int width = c1 - c0;
+                double[][] panel = new double[width][_n];
+                for (int i = last; i < _n; i++)
+                    for (int p = 0; p < width; p++)
+                        panel[p][i] = _l[i][first + p];
+
+                long work = (long) width * (_n - last);
+                int grain = (int) Math.min(_n, LUDecomposition.getParallelThreshold() / Math.max(1, work));
+                RangeTask.run(last, _n, grain, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        double[] r = _l[i];
+                        for (int p = 0; p < width; p++) {
+                            double multiple = r[first + p];
+                            if (multiple != 0)
+                                kernels.axpy(-multiple, panel[p], last, r, last, i - last + 1);
+                        }
+                    }
+                });
+            }
+
+            if (job != null)
+                job.advance(c1 - c0);
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the factorized matrix is positive definite (to the precision of the factorization)
+     */
+    public boolean isPositiveDefinite(){
+        return _isPositiveDefinite;
+    }
+
+    /**
+     * @return the lower triangular factor L such that m = L*L^t
+     * @throws NotPositiveDefiniteMatrixException in case the factorized matrix isn't positive definite
+     */
+    public Matrix getL() throws NotPositiveDefiniteMatrixException {
+        requirePositiveDefinite();
+        Matrix result = new Matrix(_n, _n);
+        for (int y = 0; y < _n; y++)
+            result.setRow(y, _l[y]);
+        return result;
+    }
+
+    /**
+     * calculate the determinant of the factorized matrix, the square of the product of the diagonal of L
+     * @return the result of |m|
+     * @throws NotPositiveDefiniteMatrixException in case the factorized matrix isn't positive definite
+     */
+    public double det() throws NotPositiveDefiniteMatrixException {
+        requirePositiveDefinite();
+        double result = 1;
+        for (int i = 0; i < _n; i++)
+            result *= _l[i][i];
+        return result * result;
+    }
+
+    /**
+     * solve the equation m*X = b using forward substitution with L and back substitution with L^t
+     * @param b represents the right hand side, must have the same height as the factorized matrix
+     * @return the matrix X such that m*X = b
+     * @throws NotPositiveDefiniteMatrixException in case the factorized matrix isn't positive definite
+     * @throws IncompatibleDimensionsException in case b has a different height than the factorized matrix
+     */
+    public Matrix solve(Matrix b) throws NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        requirePositiveDefinite();
+        if (b.getHeight() != _n)
+            throw new IncompatibleDimensionsException();
+
+        Kernels kernels = Kernels.get();
+        int width = b.getWidth();
+        double[][] x = new double[_n][];
+        for (int y = 0; y < _n; y++)
+            x[y] = b.getRow(y);
+
+        for (int k = 0; k < _n; k++) {
+            double[] xk = x[k];
+            double pivot = _l[k][k];
+            for (int j = 0; j < width; j++)
+                xk[j] /= pivot;
+            for (int i = k + 1; i < _n; i++) {
+                double multiple = _l[i][k];
+                if (multiple != 0)
+                    kernels.axpy(-multiple, xk, 0, x[i], 0, width);
+            }
+        }
+        for (int k = _n - 1; k >= 0; k--) {
+            double[] xk = x[k], lk = _l[k];
+            for (int j = 0; j < width; j++)
+                xk[j] /= lk[k];
+            for (int i = 0; i < k; i++)
+                if (lk[i] != 0)
+                    kernels.axpy(-lk[i], xk, 0, x[i], 0, width);
+        }
+
+        Matrix result = new Matrix(width, _n);
+        for (int y = 0; y < _n; y++)
+            result.setRow(y, x[y]);
+        return result;
+    }
+
+    /**
+     * calculate the decomposition of m + x*x^t from this one in O(n^2) operations instead of O(n^3), by a rotation
+     * per row. for several columns of x the updates of the columns are applied one after another (m + X*X^t)
+     * @param x represents the vectors of the update, a column of the height of m for every update
+     * @return the cholesky decomposition of m + x*x^t
+     * @throws NotPositiveDefiniteMatrixException in case the factorized matrix isn't positive definite
+     * @throws IncompatibleDimensionsException in case x has a different height than the factorized matrix
+     */
+    public CholeskyDecomposition update(Matrix x) throws NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        return update(x, 1);
+    }
+
+    /**
+     * calculate the decomposition of m - x*x^t from this one in O(n^2) operations instead of O(n^3), by a hyperbolic
+     * rotation per row. for several columns of x the downdates are applied one after another (m - X*X^t)
+     * @param x represents the vectors of the downdate, a column of the height of m for every downdate
+     * @return the cholesky decomposition of m - x*x^t, which isn't positive definite (see isPositiveDefinite) if
+     * removing x*x^t leaves a pivot that isn't positive
+     * @throws NotPositiveDefiniteMatrixException in case the factorized matrix isn't positive definite
+     * @throws IncompatibleDimensionsException in case x has a different height than the factorized matrix
+     */
+    public CholeskyDecomposition downdate(Matrix x) throws NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        return update(x, -1);
+    }
+
+    // the decomposition of m + sign*x*x^t
+    private CholeskyDecomposition update(Matrix x, int sign) throws NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        requirePositiveDefinite();
+        if (x.getHeight() != _n)
+            throw new IncompatibleDimensionsException();
+
+        double[][] l = new double[_n][];
+        for (int y = 0; y < _n; y++)
+            l[y] = _l[y].clone();
+
+        // the rotation of a column only depends on the rows above it, so every row is rotated by all the columns
+        // before it and then gives the rotation of its own column
+        double[] cos = new double[_n], sin = new double[_n];
+        for (int c = 0; c < x.getWidth(); c++) {
+            for (int i = 0; i < _n; i++) {
+                double[] r = l[i];
+                double xi = x.get(c, i);
+                for (int k = 0; k < i; k++) {
+                    r[k] = (r[k] + sign * sin[k] * xi) / cos[k];
+                    xi = cos[k] * xi - sin[k] * r[k];
+                }
+
+                double pivot = r[i];
+                double square = sign > 0 ? pivot * pivot + xi * xi : (pivot - xi) * (pivot + xi);
+                if (!(square > 0))
+                    return new CholeskyDecomposition(l, false);
+
+                r[i] = Math.sqrt(square);
+                cos[i] = r[i] / pivot;
+                sin[i] = xi / pivot;
+            }
+        }
+        return new CholeskyDecomposition(l, true);
+    }
+
+    private void requirePositiveDefinite() throws NotPositiveDefiniteMatrixException {
+        if (!_isPositiveDefinite)
+            throw new NotPositiveDefiniteMatrixException();
+    }
+}
@@ -0,0 +1,728 @@
+package logic;
+
+import logic.exceptions.NonDiagonalizableMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+/**
+ * eigenvalues and eigenvectors of a real squared matrix m, such that m = P*D*P^-1.
+ * a symmetric matrix is reduced to a tridiagonal matrix with householder reflections and then diagonalized
+ * with the implicit QL algorithm, so P is orthogonal. any other matrix is reduced to an upper hessenberg matrix
+ * and then to its real schur form with the shifted (francis double shift) QR algorithm, and the eigenvectors
+ * are found by back substitution. both paths take O(n^3) time.
+ * (the algorithms follow the EISPACK routines tred2, tql2, orthes and hqr2)
+ */
+public class EigenDecomposition {
+    private static final double EPS = Math.ulp(1.0);
+
+    // eigenvectors whose matrix has a smaller (relative) pivot than this are considered linearly dependent
+    private static final double DEPENDENCE_TOLERANCE = Math.sqrt(EPS);
+
+    // QR iterations allowed for a single eigenvalue before giving up
+    private static final int MAX_ITERATIONS = 1000;
+
+    private final int _n;
+    private final boolean _isSymmetric;
+    private final double[] _d;
+    private final double[] _e;
+    private double[][] _v;
+    private double[][] _h;
+    private double _norm;
+    private boolean _converged;
+    private boolean _isDiagonalizable;
+
+    /**
+     * calculate the eigenvalues and (when they are all real) the eigenvectors of a given matrix
+     * @param m represents the matrix operand, it is not modified
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public EigenDecomposition(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        _n = m.getWidth();
+        _d = new double[_n];
+        _e = new double[_n];
+        _converged = true;
+
+        boolean isSymmetric = true;
+        for (int y = 0; y < _n && isSymmetric; y++)
+            for (int x = 0; x < y && isSymmetric; x++)
+                isSymmetric = m.get(x, y) == m.get(y, x);
+        _isSymmetric = isSymmetric;
+
+        if (_n == 0) {
+            _v = new double[0][0];
+            _isDiagonalizable = true;
+            return;
+        }
+
+        if (_isSymmetric) {
+            _v = new double[_n][];
+            for (int y = 0; y < _n; y++)
+                _v[y] = m.getRow(y);
+
+            tridiagonalize();
+            diagonalizeTridiagonal();
+            _isDiagonalizable = true;
+        } else {
+            _v = new double[_n][_n];
+            _h = new double[_n][];
+            for (int y = 0; y < _n; y++)
+                _h[y] = m.getRow(y);
+
+            reduceToHessenberg();
+            reduceToSchur();
+
+            _isDiagonalizable = _converged && isReal();
+            if (_isDiagonalizable) {
+                findEigenvectors();
+                _isDiagonalizable = isIndependent();
+            }
+            _h = null;
+        }
+    }
+
+    public boolean isSymmetric(){
+        return _isSymmetric;
+    }
+
+    /**
+     * @return true in case the matrix is diagonalizable over the real numbers, meaning all of its eigenvalues
+     * are real and it has n linearly independent eigenvectors (it isn't defective)
+     */
+    public boolean isDiagonalizable(){
+        return _isDiagonalizable;
+    }
+
+    /**
+     * @return the real parts of the eigenvalues (ascending for a symmetric matrix)
+     */
+    public double[] getRealEigenvalues(){
+        return _d.clone();
+    }
+
+    /**
+     * @return the imaginary parts of the eigenvalues, complex eigenvalues come in conjugate pairs
+     */
+    public double[] getImagEigenvalues(){
+        return _e.clone();
+    }
+
+    /**
+     * @return the diagonal matrix D of the eigenvalues, such that m = P*D*P^-1
+     * @throws NonDiagonalizableMatrixException in case the matrix isn't diagonalizable over the real numbers
+     */
+    public Matrix getD() throws NonDiagonalizableMatrixException {
+        if (!_isDiagonalizable)
+            throw new NonDiagonalizableMatrixException();
+
+        Matrix result = new Matrix(_n, _n);
+        for (int i = 0; i < _n; i++)
+            result.set(i, i, _d[i]);
+        return result;
+    }
+
+    /**
+     * @return the matrix P whose columns are the eigenvectors (of unit length), such that m = P*D*P^-1
+     * @throws NonDiagonalizableMatrixException in case the matrix isn't diagonalizable over the real numbers
+     */
+    public Matrix getP() throws NonDiagonalizableMatrixException {
+        if (!_isDiagonalizable)
+            throw new NonDiagonalizableMatrixException();
+
+        Matrix result = new Matrix(_n, _n);
+        for (int y = 0; y < _n; y++)
+            result.setRow(y, _v[y]);
+        return result;
+    }
+
+    private boolean isReal(){
+        for (double e : _e)
+            if (e != 0)
+                return false;
+        return true;
+    }
+
+    // normalize the eigenvectors and check that they are linearly independent
+    private boolean isIndependent(){
+        for (int j = 0; j < _n; j++) {
+            double norm = 0;
+            for (int i = 0; i < _n; i++)
+                norm = Math.hypot(norm, _v[i][j]);
+            if (norm == 0 || !Double.isFinite(norm))
+                return false;
+            for (int i = 0; i < _n; i++)
+                _v[i][j] /= norm;
+        }
+
+        Matrix p = new Matrix(_n, _n);
+        for (int y = 0; y < _n; y++)
+            p.setRow(y, _v[y]);
+        Matrix u = new LUDecomposition(p).getU();
+        for (int i = 0; i < _n; i++)
+            if (Math.abs(u.get(i, i)) <= DEPENDENCE_TOLERANCE)
+                return false;
+        return true;
+    }
+
+    // symmetric householder reduction to tridiagonal form, _d and _e hold the diagonal and sub-diagonal
+    private void tridiagonalize(){
+        int n = _n;
+        double[][] v = _v;
+        double[] d = _d, e = _e;
+
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(n - 1);
+
+        for (int j = 0; j < n; j++)
+            d[j] = v[n - 1][j];
+
+        for (int i = n - 1; i > 0; i--) {
+            // scale to avoid under/overflow
+            double scale = 0;
+            double h = 0;
+            for (int k = 0; k < i; k++)
+                scale += Math.abs(d[k]);
+
+            if (scale == 0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = v[i - 1][j];
+                    v[i][j] = 0;
+                    v[j][i] = 0;
+                }
+            } else {
+                // generate the householder vector
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0)
+                    g = -g;
+                e[i] = scale * g;
+                h -= f * g;
+                d[i - 1] = f - g;
+                for (int j = 0; j < i; j++)
+                    e[j] = 0;
+
+                // apply the similarity transformation to the remaining columns
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    v[j][i] = f;
+                    g = e[j] + v[j][j] * f;
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g += v[k][j] * d[k];
+                        e[k] += v[k][j] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                double hh = f / (h + h);
+                for (int j = 0; j < i; j++)
+                    e[j] -= hh * d[j];
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    g = e[j];
+                    for (int k = j; k <= i - 1; k++)
+                        v[k][j] -= (f * e[k] + g * d[k]);
+                    d[j] = v[i - 1][j];
+                    v[i][j] = 0;
+                }
+            }
+            d[i] = h;
+            if (job != null)
+                job.advance(1);
+        }
+
+        // accumulate the transformations
+        for (int i = 0; i < n - 1; i++) {
+            v[n - 1][i] = v[i][i];
+            v[i][i] = 1;
+            double h = d[i + 1];
+            if (h != 0) {
+                for (int k = 0; k <= i; k++)
+                    d[k] = v[k][i + 1] / h;
+                for (int j = 0; j <= i; j++) {
+                    double g = 0;
+                    for (int k = 0; k <= i; k++)
+                        g += v[k][i + 1] * v[k][j];
+                    for (int k = 0; k <= i; k++)
+                        v[k][j] -= g * d[k];
+                }
+            }
+            for (int k = 0; k <= i; k++)
+                v[k][i + 1] = 0;
+        }
+        for (int j = 0; j < n; j++) {
+            d[j] = v[n - 1][j];
+            v[n - 1][j] = 0;
+        }
+        v[n - 1][n - 1] = 1;
+        e[0] = 0;
+    }
+
+    // symmetric tridiagonal QL algorithm with implicit shifts
+    private void diagonalizeTridiagonal(){
+        int n = _n;
+        double[] d = _d, e = _e;
+
+        // the rotations combine pairs of columns of V, so they are applied to the rows of V^t to stay contiguous
+        double[][] vt = transpose(_v);
+
+        for (int i = 1; i < n; i++)
+            e[i - 1] = e[i];
+        e[n - 1] = 0;
+
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(n);
+
+        double f = 0;
+        double tst1 = 0;
+        for (int l = 0; l < n; l++) {
+            // find a small sub-diagonal element
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > EPS * tst1)
+                m++;
+
+            // if m == l, d[l] is already an eigenvalue, otherwise iterate
+            if (m > l) {
+                do {
+                    // compute the implicit shift
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2 * e[l]);
+                    double r = Math.hypot(p, 1);
+                    if (p < 0)
+                        r = -r;
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++)
+                        d[i] -= h;
+                    f += h;
+
+                    // implicit QL transformation
+                    p = d[m];
+                    double c = 1, c2 = c, c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0, s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+
+                        // accumulate the transformation
+                        double[] vi = vt[i], vi1 = vt[i + 1];
+                        for (int k = 0; k < n; k++) {
+                            h = vi1[k];
+                            vi1[k] = s * vi[k] + c * h;
+                            vi[k] = c * vi[k] - s * h;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > EPS * tst1);
+            }
+            d[l] += f;
+            e[l] = 0;
+            if (job != null)
+                job.advance(1);
+        }
+
+        // sort the eigenvalues and the eigenvectors in ascending order
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            for (int j = i + 1; j < n; j++)
+                if (d[j] < d[k])
+                    k = j;
+            if (k != i) {
+                double p = d[k];
+                d[k] = d[i];
+                d[i] = p;
+                double[] temp = vt[k];
+                vt[k] = vt[i];
+                vt[i] = temp;
+            }
+        }
+
+        _v = transpose(vt);
+    }
+
+    // nonsymmetric reduction to hessenberg form by orthogonal similarity transformations, accumulated in _v
+    private void reduceToHessenberg(){
+        int n = _n;
+        int high = n - 1;
+        double[][] h = _h, v = _v;
+        double[] ort = new double[n];
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(Math.max(0, high - 1));
+
+        for (int m = 1; m <= high - 1; m++) {
+            double scale = 0;
+            for (int i = m; i <= high; i++)
+                scale += Math.abs(h[i][m - 1]);
+
+            if (scale != 0) {
+                // compute the householder transformation
+                double hh = 0;
+                for (int i = high; i >= m; i--) {
+                    ort[i] = h[i][m - 1] / scale;
+                    hh += ort[i] * ort[i];
+                }
+                double g = Math.sqrt(hh);
+                if (ort[m] > 0)
+                    g = -g;
+                hh -= ort[m] * g;
+                ort[m] -= g;
+
+                // apply the householder similarity transformation H = (I - u*u^t/h) * H * (I - u*u^t/h)
+                for (int j = m; j < n; j++) {
+                    double f = 0;
+                    for (int i = high; i >= m; i--)
+                        f += ort[i] * h[i][j];
+                    f /= hh;
+                    for (int i = m; i <= high; i++)
+                        h[i][j] -= f * ort[i];
+                }
+                for (int i = 0; i <= high; i++) {
+                    double[] hi = h[i];
+                    double f = 0;
+                    for (int j = high; j >= m; j--)
+                        f += ort[j] * hi[j];
+                    f /= hh;
+                    for (int j = m; j <= high; j++)
+                        hi[j] -= f * ort[j];
+                }
+                ort[m] = scale * ort[m];
+                h[m][m - 1] = scale * g;
+            }
+            if (job != null)
+                job.advance(1);
+        }
+
+        // accumulate the transformations
+        for (int i = 0; i < n; i++)
+            v[i][i] = 1;
+
+        for (int m = high - 1; m >= 1; m--) {
+            if (h[m][m - 1] != 0) {
+                for (int i = m + 1; i <= high; i++)
+                    ort[i] = h[i][m - 1];
+                for (int j = m; j <= high; j++) {
+                    double g = 0;
+                    for (int i = m; i <= high; i++)
+                        g += ort[i] * v[i][j];
+                    // double division avoids possible underflow
+                    g = (g / ort[m]) / h[m][m - 1];
+                    for (int i = m; i <= high; i++)
+                        v[i][j] += g * ort[i];
+                }
+            }
+        }
+    }
+
+    // nonsymmetric reduction from hessenberg to real schur form, _d and _e hold the real and imaginary eigenvalues
+    private void reduceToSchur(){
+        int nn = _n;
+        int n = nn - 1;
+        int low = 0, high = nn - 1;
+        double[][] h = _h, v = _v;
+        double[] d = _d, e = _e;
+        double exshift = 0;
+        double p = 0, q = 0, r = 0, s = 0, z = 0, t, w, x, y;
+
+        // the norm of the hessenberg matrix, for the convergence tests
+        double norm = 0;
+        for (int i = 0; i < nn; i++)
+            for (int j = Math.max(i - 1, 0); j < nn; j++)
+                norm += Math.abs(h[i][j]);
+
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(nn);
+
+        int iter = 0;
+        while (n >= low) {
+            // look for a single small sub-diagonal element
+            int l = n;
+            while (l > low) {
+                s = Math.abs(h[l - 1][l - 1]) + Math.abs(h[l][l]);
+                if (s == 0)
+                    s = norm;
+                if (Math.abs(h[l][l - 1]) < EPS * s)
+                    break;
+                l--;
+            }
+
+            if (l == n) {
+                // one root found
+                h[n][n] += exshift;
+                d[n] = h[n][n];
+                e[n] = 0;
+                n--;
+                iter = 0;
+                if (job != null)
+                    job.advance(1);
+            } else if (l == n - 1) {
+                // two roots found
+                w = h[n][n - 1] * h[n - 1][n];
+                p = (h[n - 1][n - 1] - h[n][n]) / 2;
+                q = p * p + w;
+                z = Math.sqrt(Math.abs(q));
+                h[n][n] += exshift;
+                h[n - 1][n - 1] += exshift;
+                x = h[n][n];
+
+                if (q >= 0) {
+                    // a real pair
+                    z = p >= 0 ? p + z : p - z;
+                    d[n - 1] = x + z;
+                    d[n] = d[n - 1];
+                    if (z != 0)
+                        d[n] = x - w / z;
+                    e[n - 1] = 0;
+                    e[n] = 0;
+                    x = h[n][n - 1];
+                    s = Math.abs(x) + Math.abs(z);
+                    p = x / s;
+                    q = z / s;
+                    r = Math.sqrt(p * p + q * q);
+                    p /= r;
+                    q /= r;
+
+                    // row modification
+                    for (int j = n - 1; j < nn; j++) {
+                        z = h[n - 1][j];
+                        h[n - 1][j] = q * z + p * h[n][j];
+                        h[n][j] = q * h[n][j] - p * z;
+                    }
+                    // column modification
+                    for (int i = 0; i <= n; i++) {
+                        z = h[i][n - 1];
+                        h[i][n - 1] = q * z + p * h[i][n];
+                        h[i][n] = q * h[i][n] - p * z;
+                    }
+                    // accumulate the transformations
+                    for (int i = low; i <= high; i++) {
+                        z = v[i][n - 1];
+                        v[i][n - 1] = q * z + p * v[i][n];
+                        v[i][n] = q * v[i][n] - p * z;
+                    }
+                } else {
+                    // a complex pair
+                    d[n - 1] = x + p;
+                    d[n] = x + p;
+                    e[n - 1] = z;
+                    e[n] = -z;
+                }
+                n -= 2;
+                iter = 0;
+                if (job != null)
+                    job.advance(2);
+            } else {
+                // no convergence yet
+                if (job != null)
+                    job.checkpoint();
+                if (++iter > MAX_ITERATIONS) {
+                    _converged = false;
+                    return;
+                }
+
+                x = h[n][n];
+                y = 0;
+                w = 0;
+                if (l < n) {
+                    y = h[n - 1][n - 1];
+                    w = h[n][n - 1] * h[n - 1][n];
+                }
+
+                // wilkinson's original ad hoc shift
+                if (iter == 10) {
+                    exshift += x;
+                    for (int i = low; i <= n; i++)
+                        h[i][i] -= x;
+                    s = Math.abs(h[n][n - 1]) + Math.abs(h[n - 1][n - 2]);
+                    x = y = 0.75 * s;
+                    w = -0.4375 * s * s;
+                }
+
+                // matlab's new ad hoc shift
+                if (iter == 30) {
+                    s = (y - x) / 2;
+                    s = s * s + w;
+                    if (s > 0) {
+                        s = Math.sqrt(s);
+                        if (y < x)
+                            s = -s;
+                        s = x - w / ((y - x) / 2 + s);
+                        for (int i = low; i <= n; i++)
+                            h[i][i] -= s;
+                        exshift += s;
+                        x = y = w = 0.964;
+                    }
+                }
+
+                // look for two consecutive small sub-diagonal elements
+                int m = n - 2;
+                while (m >= l) {
+                    z = h[m][m];
+                    r = x - z;
+                    s = y - z;
+                    p = (r * s - w) / h[m + 1][m] + h[m][m + 1];
+                    q = h[m + 1][m + 1] - z - r - s;
+                    r = h[m + 2][m + 1];
+                    s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                    p /= s;
+                    q /= s;
+                    r /= s;
+                    if (m == l)
+                        break;
+                    if (Math.abs(h[m][m - 1]) * (Math.abs(q) + Math.abs(r)) <
+                            EPS * (Math.abs(p) * (Math.abs(h[m - 1][m - 1]) + Math.abs(z) + Math.abs(h[m + 1][m + 1]))))
+                        break;
+                    m--;
+                }
+
+                for (int i = m + 2; i <= n; i++) {
+                    h[i][i - 2] = 0;
+                    if (i > m + 2)
+                        h[i][i - 3] = 0;
+                }
+
+                // double QR step involving rows l..n and columns m..n
+                for (int k = m; k <= n - 1; k++) {
+                    boolean notLast = k != n - 1;
+                    if (k != m) {
+                        p = h[k][k - 1];
+                        q = h[k + 1][k - 1];
+                        r = notLast ? h[k + 2][k - 1] : 0;
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if (x == 0)
+                            continue;
+                        p /= x;
+                        q /= x;
+                        r /= x;
+                    }
+
+                    s = Math.sqrt(p * p + q * q + r * r);
+                    if (p < 0)
+                        s = -s;
+                    if (s != 0) {
+                        if (k != m)
+                            h[k][k - 1] = -s * x;
+                        else if (l != m)
+                            h[k][k - 1] = -h[k][k - 1];
+                        p += s;
+                        x = p / s;
+                        y = q / s;
+                        z = r / s;
+                        q /= p;
+                        r /= p;
+
+                        // row modification
+                        for (int j = k; j < nn; j++) {
+                            p = h[k][j] + q * h[k + 1][j];
+                            if (notLast) {
+                                p += r * h[k + 2][j];
+                                h[k + 2][j] -= p * z;
+                            }
+                            h[k][j] -= p * x;
+                            h[k + 1][j] -= p * y;
+                        }
+                        // column modification
+                        for (int i = 0; i <= Math.min(n, k + 3); i++) {
+                            double[] hi = h[i];
+                            p = x * hi[k] + y * hi[k + 1];
+                            if (notLast) {
+                                p += z * hi[k + 2];
+                                hi[k + 2] -= p * r;
+                            }
+                            hi[k] -= p;
+                            hi[k + 1] -= p * q;
+                        }
+                        // accumulate the transformations
+                        for (int i = low; i <= high; i++) {
+                            double[] vi = v[i];
+                            p = x * vi[k] + y * vi[k + 1];
+                            if (notLast) {
+                                p += z * vi[k + 2];
+                                vi[k + 2] -= p * r;
+                            }
+                            vi[k] -= p;
+                            vi[k + 1] -= p * q;
+                        }
+                    }
+                }
+            }
+        }
+
+        _norm = norm;
+    }
+
+    // back substitute in the (upper triangular, all eigenvalues real) schur form, and transform back with _v
+    private void findEigenvectors(){
+        int nn = _n;
+        double[][] h = _h, v = _v;
+        double[] d = _d;
+
+        if (_norm == 0)
+            return;
+
+        for (int n = nn - 1; n >= 0; n--) {
+            double p = d[n];
+            h[n][n] = 1;
+            for (int i = n - 1; i >= 0; i--) {
+                double w = h[i][i] - p;
+                double r = 0;
+                for (int j = i + 1; j <= n; j++)
+                    r += h[i][j] * h[j][n];
+
+                // an equal eigenvalue makes the system singular, perturb it (this is where defective matrices blow up)
+                h[i][n] = w != 0 ? -r / w : -r / (EPS * _norm);
+
+                // overflow control
+                double t = Math.abs(h[i][n]);
+                if ((EPS * t) * t > 1)
+                    for (int j = i; j <= n; j++)
+                        h[j][n] /= t;
+            }
+        }
+
+        // back transformation to the eigenvectors of the original matrix
+        for (int j = nn - 1; j >= 0; j--)
+            for (int i = 0; i < nn; i++) {
+                double z = 0;
+                for (int k = 0; k <= j; k++)
+                    z += v[i][k] * h[k][j];
+                v[i][j] = z;
+            }
+    }
+
+    private static double[][] transpose(double[][] a){
+        int n = a.length;
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                result[j][i] = a[i][j];
+        return result;
+    }
+}
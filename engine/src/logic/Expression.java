@@ -0,0 +1,327 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * a lazy matrix expression. the operations only build a graph of the expression, which is calculated once eval is
+ * called, from the values the matrices hold at that time:
+ * <ul>
+ * <li>additions, subtractions, scalar multiplications and transposes are linear, so every chain of them is
+ * folded into a sum of scaled terms and calculated in a single pass, without temporary matrices</li>
+ * <li>a transpose is a view of the same values in the opposite layout, it never copies</li>
+ * <li>the scalars around a product are folded into the product kernel, and the product is accumulated directly
+ * into the result (a GEMM, result += c*m1*m2)</li>
+ * <li>a product that is an operand of more than one product is calculated once</li>
+ * </ul>
+ */
+public abstract class Expression {
+    private final int _width;
+    private final int _height;
+
+    private Expression(int width, int height){
+        _width = width;
+        _height = height;
+    }
+
+    /**
+     * @param m represents a matrix
+     * @return an expression of the matrix itself, its values are read when the expression is evaluated
+     */
+    public static Expression of(Matrix m){
+        return new Leaf(m);
+    }
+
+    public int getWidth(){
+        return _width;
+    }
+
+    public int getHeight(){
+        return _height;
+    }
+
+    /**
+     * @param e represents the right (second) operand
+     * @return the expression this+e
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public Expression add(Expression e) throws IncompatibleDimensionsException {
+        return sum(e, 1);
+    }
+
+    /**
+     * @param m represents the right (second) operand
+     * @return the expression this+m
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public Expression add(Matrix m) throws IncompatibleDimensionsException {
+        return add(of(m));
+    }
+
+    /**
+     * @param e represents the right (second) operand
+     * @return the expression this-e
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public Expression sub(Expression e) throws IncompatibleDimensionsException {
+        return sum(e, -1);
+    }
+
+    /**
+     * @param m represents the right (second) operand
+     * @return the expression this-m
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public Expression sub(Matrix m) throws IncompatibleDimensionsException {
+        return sub(of(m));
+    }
+
+    /**
+     * @param scalar represents the scalar operand
+     * @return the expression c*this
+     */
+    public Expression multiply(double scalar){
+        return new Scale(this, scalar);
+    }
+
+    /**
+     * @param e represents the right (second) operand
+     * @return the expression this*e
+     * @throws IncompatibleDimensionsException in case the width of this isn't the height of e
+     */
+    public Expression multiply(Expression e) throws IncompatibleDimensionsException {
+        if (_width != e._height)
+            throw new IncompatibleDimensionsException();
+
+        return new Product(this, e);
+    }
+
+    /**
+     * @param m represents the right (second) operand
+     * @return the expression this*m
+     * @throws IncompatibleDimensionsException in case the width of this isn't the height of m
+     */
+    public Expression multiply(Matrix m) throws IncompatibleDimensionsException {
+        return multiply(of(m));
+    }
+
+    /**
+     * @return the expression this^t
+     */
+    public Expression transpose(){
+        return new Transpose(this);
+    }
+
+    /**
+     * calculate the expression
+     * @return a new (row major) matrix with the value of the expression
+     */
+    public Matrix eval(){
+        return eval(new IdentityHashMap<>());
+    }
+
+    private Expression sum(Expression e, double sign) throws IncompatibleDimensionsException {
+        if (_width != e._width || _height != e._height)
+            throw new IncompatibleDimensionsException();
+
+        return new Sum(this, e, sign);
+    }
+
+    // products that were already calculated in this evaluation, so shared sub expressions are calculated once
+    private Matrix eval(Map<Product, Matrix> products){
+        List<Term> terms = new ArrayList<>();
+        collect(1, false, terms);
+
+        Matrix result = new Matrix(_width, _height);
+        double[] c = result.getData();
+
+        // the matrix terms, one row of the result at a time so the row stays in the cache between the terms
+        List<Matrix> matrices = new ArrayList<>();
+        List<Double> coefficients = new ArrayList<>();
+        for (Term term : terms) {
+            if (term._product == null) {
+                matrices.add(term.view());
+                coefficients.add(term._coefficient);
+            }
+        }
+
+        for (int y = 0, ci = 0; y < _height; y++, ci += _width) {
+            for (int t = 0; t < matrices.size(); t++) {
+                Matrix m = matrices.get(t);
+                double coefficient = coefficients.get(t);
+                double[] a = m.getData();
+                int stride = m.columnStride();
+
+                if (t == 0)
+                    for (int x = 0, i = m.rowOffset(y); x < _width; x++, i += stride)
+                        c[ci + x] = coefficient * a[i];
+                else
+                    for (int x = 0, i = m.rowOffset(y); x < _width; x++, i += stride)
+                        c[ci + x] += coefficient * a[i];
+            }
+        }
+
+        // (m1*m2)^t = m2^t * m1^t, so a transposed product is a product of transposed views
+        for (Term term : terms) {
+            if (term._product == null)
+                continue;
+
+            Term left, right;
+            if (term._transposed) {
+                left = term._product._right.operand(true, products);
+                right = term._product._left.operand(true, products);
+            } else {
+                left = term._product._left.operand(false, products);
+                right = term._product._right.operand(false, products);
+            }
+            BlockedMultiplication.multiplyAdd(left.view(), right.view(),
+                    term._coefficient * left._coefficient * right._coefficient, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * add the terms of coefficient * this (transposed if asked) to the given list, merging repeated terms
+     * @param coefficient represents the scalar this is multiplied by
+     * @param transposed represents whether this is transposed
+     * @param terms represents the list of terms to add to
+     */
+    abstract void collect(double coefficient, boolean transposed, List<Term> terms);
+
+    // this as an operand of a product: a single scaled (maybe transposed) matrix or product as is, otherwise calculated
+    private Term operand(boolean transposed, Map<Product, Matrix> products){
+        List<Term> terms = new ArrayList<>();
+        collect(1, transposed, terms);
+        if (terms.size() != 1)
+            return new Term(1, eval(products), null, transposed);
+
+        Term term = terms.get(0);
+        if (term._product == null)
+            return term;
+
+        Matrix m = products.get(term._product);
+        if (m == null) {
+            m = ((Expression) term._product).eval(products);
+            products.put(term._product, m);
+        }
+        return new Term(term._coefficient, m, null, term._transposed);
+    }
+
+    private static void addTerm(List<Term> terms, double coefficient, Matrix matrix, Product product, boolean transposed){
+        for (Term term : terms) {
+            if (term._matrix == matrix && term._product == product && term._transposed == transposed) {
+                term._coefficient += coefficient;
+                return;
+            }
+        }
+        terms.add(new Term(coefficient, matrix, product, transposed));
+    }
+
+    // a scaled matrix or product, maybe transposed
+    private static class Term {
+        private double _coefficient;
+        private final Matrix _matrix;
+        private final Product _product;
+        private final boolean _transposed;
+
+        Term(double coefficient, Matrix matrix, Product product, boolean transposed){
+            _coefficient = coefficient;
+            _matrix = matrix;
+            _product = product;
+            _transposed = transposed;
+        }
+
+        // the matrix as it appears in the expression, a transposed matrix is the same values in the opposite layout
+        Matrix view(){
+            if (!_transposed)
+                return _matrix;
+
+            Matrix.Layout layout = _matrix.getLayout() == Matrix.Layout.ROW_MAJOR ? Matrix.Layout.COLUMN_MAJOR : Matrix.Layout.ROW_MAJOR;
+            return new Matrix(_matrix.getHeight(), _matrix.getWidth(), layout, _matrix.getData());
+        }
+    }
+
+    private static class Leaf extends Expression {
+        private final Matrix _matrix;
+
+        Leaf(Matrix m){
+            super(m.getWidth(), m.getHeight());
+            _matrix = m;
+        }
+
+        @Override
+        void collect(double coefficient, boolean transposed, List<Term> terms){
+            addTerm(terms, coefficient, _matrix, null, transposed);
+        }
+    }
+
+    private static class Transpose extends Expression {
+        private final Expression _operand;
+
+        Transpose(Expression e){
+            super(e.getHeight(), e.getWidth());
+            _operand = e;
+        }
+
+        @Override
+        void collect(double coefficient, boolean transposed, List<Term> terms){
+            _operand.collect(coefficient, !transposed, terms);
+        }
+    }
+
+    private static class Scale extends Expression {
+        private final Expression _operand;
+        private final double _scalar;
+
+        Scale(Expression e, double scalar){
+            super(e.getWidth(), e.getHeight());
+            _operand = e;
+            _scalar = scalar;
+        }
+
+        @Override
+        void collect(double coefficient, boolean transposed, List<Term> terms){
+            _operand.collect(coefficient * _scalar, transposed, terms);
+        }
+    }
+
+    private static class Sum extends Expression {
+        private final Expression _left;
+        private final Expression _right;
+        private final double _sign;
+
+        Sum(Expression left, Expression right, double sign){
+            super(left.getWidth(), left.getHeight());
+            _left = left;
+            _right = right;
+            _sign = sign;
+        }
+
+        @Override
+        void collect(double coefficient, boolean transposed, List<Term> terms){
+            _left.collect(coefficient, transposed, terms);
+            _right.collect(coefficient * _sign, transposed, terms);
+        }
+    }
+
+    private static class Product extends Expression {
+        private final Expression _left;
+        private final Expression _right;
+
+        Product(Expression left, Expression right){
+            super(right.getWidth(), left.getHeight());
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        void collect(double coefficient, boolean transposed, List<Term> terms){
+            addTerm(terms, coefficient, null, this, transposed);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package logic;
+
+/**
+ * an exact rational number numerator/denominator of longs, always in lowest terms with a positive denominator.
+ * the arithmetic throws an ArithmeticException instead of overflowing
+ */
+public final class Fraction {
+    public static final Fraction ZERO = new Fraction(0, 1);
+    public static final Fraction ONE = new Fraction(1, 1);
+
+    private final long _numerator;
+    private final long _denominator;
+
+    /**
+     * @param numerator represents the numerator
+     * @param denominator represents the denominator, nonzero
+     * @throws ArithmeticException in case the denominator is zero
+     */
+    public Fraction(long numerator, long denominator){
+        if (denominator == 0)
+            throw new ArithmeticException("zero denominator");
+
+        long gcd = gcd(Math.abs(numerator), Math.abs(denominator));
+        numerator /= gcd;
+        denominator /= gcd;
+        if (denominator < 0) {
+            numerator = Math.negateExact(numerator);
+            denominator = Math.negateExact(denominator);
+        }
+        _numerator = numerator;
+        _denominator = denominator;
+    }
+
+    public Fraction(long val){
+        this(val, 1);
+    }
+
+    /**
+     * convert a double into the fraction of exactly the same value (every finite double is a binary fraction)
+     * @param val represents the value to convert
+     * @return the fraction equal to val
+     * @throws ArithmeticException in case val isn't finite, or its numerator or denominator doesn't fit in a long
+     */
+    public static Fraction valueOf(double val){
+        if (!Double.isFinite(val))
+            throw new ArithmeticException(val + " isn't a rational number");
+        if (val == Math.rint(val)) {
+            if (Math.abs(val) >= 0x1p63)
+                throw new ArithmeticException(val + " doesn't fit in a long");
+            return new Fraction((long) val);
+        }
+
+        // val = mantissa * 2^exponent with a negative exponent, the lowest terms only remove common factors of 2
+        int exponent = Math.getExponent(val) - 52;
+        long mantissa = (long) Math.scalb(val, -exponent);
+        int shift = Math.min(Long.numberOfTrailingZeros(mantissa), -exponent);
+        mantissa >>= shift;
+        exponent += shift;
+        if (-exponent > 62)
+            throw new ArithmeticException("the denominator of " + val + " doesn't fit in a long");
+        return new Fraction(mantissa, 1L << -exponent);
+    }
+
+    public long getNumerator(){
+        return _numerator;
+    }
+
+    public long getDenominator(){
+        return _denominator;
+    }
+
+    public boolean isZero(){
+        return _numerator == 0;
+    }
+
+    public double doubleValue(){
+        return (double) _numerator / _denominator;
+    }
+
+    /**
+     * @return the result of this*val, reduced before multiplying so it only overflows if the result doesn't fit
+     */
+    public Fraction multiply(long val){
+        long gcd = gcd(Math.abs(val), _denominator);
+        return new Fraction(Math.multiplyExact(_numerator, val / gcd), _denominator / gcd);
+    }
+
+    /**
+     * @return the result of this/val, reduced before multiplying so it only overflows if the result doesn't fit
+     */
+    public Fraction divide(long val){
+        long gcd = gcd(Math.abs(_numerator), Math.abs(val));
+        return new Fraction(_numerator / gcd, Math.multiplyExact(_denominator, val / gcd));
+    }
+
+    // the greatest common divisor of two non-negative values, 1 for two zeros
+    static long gcd(long a, long b){
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Fraction f && _numerator == f._numerator && _denominator == f._denominator;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(_numerator) + Long.hashCode(_denominator);
+    }
+
+    @Override
+    public String toString() {
+        return _denominator == 1 ? Long.toString(_numerator) : _numerator + "/" + _denominator;
+    }
+}
@@ -0,0 +1,233 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+/**
+ * a squared matrix together with its inverse and determinant, kept up to date through changes of the matrix in
+ * O(n^2) operations per change instead of the O(n^3) of inverting it again. a change of rank k (m + U*V^t, and
+ * replacing a row, a column or an entry, which are of rank 1) updates the inverse by the Woodbury formula
+ * (Sherman-Morrison for rank 1) and the determinant by the matrix determinant lemma, both from the k x k matrix
+ * I + V^t*m^-1*U. the rounding errors of the updates add up, refresh inverts the matrix again from scratch
+ */
+public class IncrementalInverse {
+    private final double[][] _matrix;
+    private final int _n;
+    private double[][] _inverse;
+    private double _det;
+    private int _updates;
+
+    /**
+     * invert a given matrix
+     * @param m represents the matrix operand, it is not modified
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the matrix is singular
+     */
+    public IncrementalInverse(Matrix m) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        _n = m.getHeight();
+        _matrix = new double[_n][];
+        for (int y = 0; y < _n; y++)
+            _matrix[y] = m.getRow(y);
+        refresh();
+    }
+
+    /**
+     * invert the matrix again from scratch, dropping the rounding errors of the updates so far
+     * @throws NonInvertibleMatrixException in case the matrix is singular
+     */
+    public void refresh() throws NonInvertibleMatrixException {
+        LUDecomposition lu = new LUDecomposition(getMatrix());
+        try {
+            Matrix inverse = lu.inverse();
+            _inverse = new double[_n][];
+            for (int y = 0; y < _n; y++)
+                _inverse[y] = inverse.getRow(y);
+            _det = lu.det();
+        } catch (NonSquareMatrixException e) {
+            throw new IllegalStateException(e);
+        }
+        _updates = 0;
+    }
+
+    /**
+     * change the matrix to m + u*v^t
+     * @param u represents the left vectors of the change, a column of the height of m for every rank
+     * @param v represents the right vectors of the change, of the dimensions of u
+     * @throws NonInvertibleMatrixException in case the changed matrix is singular, the matrix is left unchanged
+     * @throws IncompatibleDimensionsException in case u and v don't have the height of m or the same width
+     */
+    public void update(Matrix u, Matrix v) throws NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (u.getHeight() != _n || v.getHeight() != _n || u.getWidth() != v.getWidth())
+            throw new IncompatibleDimensionsException();
+
+        int k = u.getWidth();
+        double[][] us = new double[k][_n], vs = new double[k][_n];
+        for (int c = 0; c < k; c++)
+            for (int i = 0; i < _n; i++) {
+                us[c][i] = u.get(c, i);
+                vs[c][i] = v.get(c, i);
+            }
+        update(us, vs);
+    }
+
+    /**
+     * replace a row of the matrix, a change of rank 1
+     * @param y represents the index of the row
+     * @param row represents the new values of the row
+     * @throws NonInvertibleMatrixException in case the changed matrix is singular, the matrix is left unchanged
+     * @throws IncompatibleDimensionsException in case the row isn't of the width of m
+     */
+    public void setRow(int y, double[] row) throws NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (row.length != _n)
+            throw new IncompatibleDimensionsException();
+
+        double[] u = new double[_n], v = new double[_n];
+        u[y] = 1;
+        for (int x = 0; x < _n; x++)
+            v[x] = row[x] - _matrix[y][x];
+        update(new double[][]{u}, new double[][]{v});
+    }
+
+    /**
+     * replace a column of the matrix, a change of rank 1
+     * @param x represents the index of the column
+     * @param column represents the new values of the column
+     * @throws NonInvertibleMatrixException in case the changed matrix is singular, the matrix is left unchanged
+     * @throws IncompatibleDimensionsException in case the column isn't of the height of m
+     */
+    public void setColumn(int x, double[] column) throws NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (column.length != _n)
+            throw new IncompatibleDimensionsException();
+
+        double[] u = new double[_n], v = new double[_n];
+        for (int y = 0; y < _n; y++)
+            u[y] = column[y] - _matrix[y][x];
+        v[x] = 1;
+        update(new double[][]{u}, new double[][]{v});
+    }
+
+    /**
+     * replace an entry of the matrix, a change of rank 1
+     * @param x represents the column of the entry
+     * @param y represents the row of the entry
+     * @param value represents the new value of the entry
+     * @throws NonInvertibleMatrixException in case the changed matrix is singular, the matrix is left unchanged
+     */
+    public void set(int x, int y, double value) throws NonInvertibleMatrixException {
+        double[] u = new double[_n], v = new double[_n];
+        u[y] = value - _matrix[y][x];
+        v[x] = 1;
+        update(new double[][]{u}, new double[][]{v});
+    }
+
+    // m + U*V^t for the columns of U and V, m^-1 - m^-1*U*C^-1*V^t*m^-1 where C = I + V^t*m^-1*U, |m|*|C|
+    private void update(double[][] us, double[][] vs) throws NonInvertibleMatrixException {
+        Kernels kernels = Kernels.get();
+        int k = us.length;
+        int grain = (int) Math.min(_n, LUDecomposition.getParallelThreshold() / Math.max(1, (long) _n * k));
+
+        // the columns of m^-1*U and the rows of V^t*m^-1
+        double[][] mu = new double[k][_n], vm = new double[k][_n];
+        RangeTask.run(0, _n, grain, (from, to) -> {
+            for (int i = from; i < to; i++)
+                for (int c = 0; c < k; c++)
+                    mu[c][i] = kernels.dot(_inverse[i], 0, us[c], 0, 0, _n);
+        });
+        for (int c = 0; c < k; c++)
+            for (int i = 0; i < _n; i++)
+                if (vs[c][i] != 0)
+                    kernels.axpy(vs[c][i], _inverse[i], 0, vm[c], 0, _n);
+
+        // C, whose entries are singular once they are as small as the rounding of their sums
+        Matrix capacitance = new Matrix(k, k);
+        double scale = 0;
+        for (int a = 0; a < k; a++)
+            for (int b = 0; b < k; b++) {
+                double sum = a == b ? 1 : 0, abs = Math.abs(sum);
+                for (int i = 0; i < _n; i++) {
+                    sum += vs[a][i] * mu[b][i];
+                    abs += Math.abs(vs[a][i] * mu[b][i]);
+                }
+                capacitance.set(b, a, sum);
+                scale = Math.max(scale, abs);
+            }
+
+        LUDecomposition lu = new LUDecomposition(capacitance, LUDecomposition.Pivoting.PARTIAL, _n * Math.ulp(scale));
+        Matrix w;
+        double det;
+        try {
+            Matrix rows = new Matrix(_n, k);
+            for (int c = 0; c < k; c++)
+                rows.setRow(c, vm[c]);
+            w = lu.solve(rows);
+            det = lu.det();
+        } catch (NonSquareMatrixException | IncompatibleDimensionsException e) {
+            throw new IllegalStateException(e);
+        }
+
+        double[][] ws = new double[k][];
+        for (int c = 0; c < k; c++)
+            ws[c] = w.getRow(c);
+        RangeTask.run(0, _n, grain, (from, to) -> {
+            for (int i = from; i < to; i++)
+                for (int c = 0; c < k; c++) {
+                    if (mu[c][i] != 0)
+                        kernels.axpy(-mu[c][i], ws[c], 0, _inverse[i], 0, _n);
+                    if (us[c][i] != 0)
+                        kernels.axpy(us[c][i], vs[c], 0, _matrix[i], 0, _n);
+                }
+        });
+        _det *= det;
+        _updates += k;
+    }
+
+    /**
+     * @return the rank of the changes since the matrix was last inverted from scratch
+     */
+    public int getUpdates(){
+        return _updates;
+    }
+
+    /**
+     * @return the current matrix
+     */
+    public Matrix getMatrix(){
+        return toMatrix(_matrix);
+    }
+
+    /**
+     * @return the inverse of the current matrix
+     */
+    public Matrix getInverse(){
+        return toMatrix(_inverse);
+    }
+
+    /**
+     * @return the determinant of the current matrix
+     */
+    public double det(){
+        return _det;
+    }
+
+    /**
+     * solve the equation m*X = b for the current matrix, by multiplying b by the inverse in O(n^2) operations per
+     * column of b
+     * @param b represents the right hand side, must have the same height as the matrix
+     * @return the matrix X such that m*X = b
+     * @throws IncompatibleDimensionsException in case b has a different height than the matrix
+     */
+    public Matrix solve(Matrix b) throws IncompatibleDimensionsException {
+        return MatrixCalculations.multiply(getInverse(), b);
+    }
+
+    private Matrix toMatrix(double[][] rows){
+        Matrix result = new Matrix(_n, _n);
+        for (int y = 0; y < _n; y++)
+            result.setRow(y, rows[y]);
+        return result;
+    }
+}
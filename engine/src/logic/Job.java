@@ -0,0 +1,131 @@
+package logic;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a handle of an operation running asynchronously (see AsyncCalculations): its result, its progress and its
+ * cancellation. the operations check their job between the steps of their work (the pivots of an elimination, the
+ * row blocks of a product, the eigenvalues found...), so once the future is completed from outside (cancelled, timed
+ * out or completed by the caller) or the running thread is interrupted, the operation stops at its next step instead
+ * of running to the end. the progress counts the steps done out of the steps known so far, an operation made of
+ * several phases (an elimination and then a substitution) adds the steps of every phase when it starts
+ * @param <T> represents the type of the result
+ */
+public class Job<T> {
+    private static final ThreadLocal<Job<?>> CURRENT = new ThreadLocal<>();
+
+    private final CompletableFuture<T> _future = new CompletableFuture<>();
+    // the steps may be counted by the threads of a parallel operation at once
+    private final LongAdder _done = new LongAdder();
+    private final LongAdder _total = new LongAdder();
+
+    Job(){
+    }
+
+    /**
+     * @return the future of the result, cancelling it or completing it in any other way stops the operation
+     */
+    public CompletableFuture<T> getFuture(){
+        return _future;
+    }
+
+    /**
+     * @return the amount of steps done so far
+     */
+    public long getDone(){
+        return _done.sum();
+    }
+
+    /**
+     * @return the amount of steps known so far
+     */
+    public long getTotal(){
+        return _total.sum();
+    }
+
+    /**
+     * @return the fraction of the steps known so far that are done, in [0, 1], or 0 before any step is known
+     */
+    public double getProgress(){
+        long total = getTotal();
+        return total == 0 ? 0 : Math.min(1, (double) getDone() / total);
+    }
+
+    /**
+     * cancel the operation, its future completes with a CancellationException and the operation stops at its next step
+     * @return whether the job was cancelled by this call (false if it was already done)
+     */
+    public boolean cancel(){
+        return _future.cancel(false);
+    }
+
+    /**
+     * stop the operation after a given time, its future completes with a TimeoutException if it isn't done by then.
+     * the time is counted from this call, including the time the job waits for a thread
+     * @param timeout represents the time the operation is allowed to take
+     * @param unit represents the unit of the time
+     * @return this job
+     */
+    public Job<T> orTimeout(long timeout, TimeUnit unit){
+        _future.orTimeout(timeout, unit);
+        return this;
+    }
+
+    /**
+     * @return the job of the operation running on this thread, or null if it doesn't run as a job
+     */
+    static Job<?> current(){
+        return CURRENT.get();
+    }
+
+    /**
+     * add steps of work to the operation, and check that it may continue
+     * @param steps represents the amount of steps added
+     */
+    void begin(long steps){
+        _total.add(steps);
+        checkpoint();
+    }
+
+    /**
+     * count steps of work as done, and check that the operation may continue
+     * @param steps represents the amount of steps done
+     */
+    void advance(long steps){
+        _done.add(steps);
+        checkpoint();
+    }
+
+    /**
+     * @throws CancellationException in case the future is already completed or the thread is interrupted
+     */
+    void checkpoint(){
+        if (Thread.currentThread().isInterrupted())
+            cancel();
+        if (_future.isDone())
+            throw new CancellationException("the job was stopped");
+    }
+
+    /**
+     * calculate the result on this thread and complete the future with it, unless the future is completed first
+     * @param calculation represents the operation
+     */
+    void run(Callable<? extends T> calculation){
+        if (_future.isDone())
+            return;
+
+        CURRENT.set(this);
+        try {
+            _future.complete(calculation.call());
+        } catch (Throwable e) {
+            // after the future is stopped the CancellationException of the operation is ignored
+            _future.completeExceptionally(e);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package logic;
+
+/**
+ * the innermost loops of the dense operations, over contiguous runs of the backing arrays.
+ * this class is the scalar implementation, VectorKernels overrides it with SIMD loops of the (incubating) vector API.
+ * the vector kernels are used when the jdk.incubator.vector module is available at runtime
+ * (java --add-modules jdk.incubator.vector), unless the system property logic.kernels is set to "scalar"
+ */
+class Kernels {
+    private static final Kernels INSTANCE = select();
+
+    /**
+     * @return the kernels selected for this runtime
+     */
+    static Kernels get(){
+        return INSTANCE;
+    }
+
+    /**
+     * @return the name of the selected kernels, "vector" or "scalar"
+     */
+    static String getName(){
+        return INSTANCE.name();
+    }
+
+    String name(){
+        return "scalar";
+    }
+
+    // c[i] = a[i] + sign * b[i]
+    void add(double[] a, double[] b, double sign, double[] c, int length){
+        for (int i = 0; i < length; i++)
+            c[i] = a[i] + sign * b[i];
+    }
+
+    // c[cOffset + i] = a[aOffset + i] * scalar
+    void scale(double[] a, int aOffset, double scalar, double[] c, int cOffset, int length){
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * scalar;
+    }
+
+    // y[yOffset + i] += alpha * x[xOffset + i]
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length){
+        for (int i = 0; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    // the sum of a[offset + i]^2
+    double sumOfSquares(double[] a, int offset, int length){
+        double sum = 0;
+        for (int i = offset; i < offset + length; i++)
+            sum += a[i] * a[i];
+        return sum;
+    }
+
+    // the sum of |a[offset + i]|
+    double sumOfAbs(double[] a, int offset, int length){
+        double sum = 0;
+        for (int i = offset; i < offset + length; i++)
+            sum += Math.abs(a[i]);
+        return sum;
+    }
+
+    // the maximum of |a[offset + i]|, 0 for no values
+    double maxAbs(double[] a, int offset, int length){
+        double max = 0;
+        for (int i = offset; i < offset + length; i++)
+            max = Math.max(max, Math.abs(a[i]));
+        return max;
+    }
+
+    // the sum of a[aOffset + i] * b[bOffset + i] for i in [from, to)
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int from, int to){
+        double sum = 0;
+        for (int i = from; i < to; i++)
+            sum += a[aOffset + i] * b[bOffset + i];
+        return sum;
+    }
+
+    /**
+     * the four dot products of two rows of a with two rows of b over [from, to), the 2x2 micro kernel of the
+     * blocked multiplication
+     * @param sums represents the array the products are written into, as {a0*b0, a0*b1, a1*b0, a1*b1}
+     */
+    void dot2x2(double[] a, int a0, int a1, double[] b, int b0, int b1, int from, int to, double[] sums){
+        double c00 = 0, c01 = 0, c10 = 0, c11 = 0;
+        for (int i = from; i < to; i++) {
+            double va0 = a[a0 + i], va1 = a[a1 + i];
+            double vb0 = b[b0 + i], vb1 = b[b1 + i];
+            c00 += va0 * vb0;
+            c01 += va0 * vb1;
+            c10 += va1 * vb0;
+            c11 += va1 * vb1;
+        }
+        sums[0] = c00;
+        sums[1] = c01;
+        sums[2] = c10;
+        sums[3] = c11;
+    }
+
+    private static Kernels select(){
+        if ("scalar".equalsIgnoreCase(System.getProperty("logic.kernels")))
+            return new Kernels();
+        // the vector kernels can only be loaded if the module was added to the boot layer
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return new Kernels();
+
+        try {
+            return (Kernels) Class.forName("logic.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new Kernels();
+        }
+    }
+}
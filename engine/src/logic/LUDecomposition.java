@@ -0,0 +1,883 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+import java.util.Arrays;
+
+public class LUDecomposition {
+    /**
+     * the choice of pivots. partial pivoting picks the largest entry of the column (swapping rows), full pivoting
+     * picks the largest entry of the whole remaining matrix (swapping rows and columns) so P*m*Q = L*U, which
+     * detects the rank more reliably but doesn't give the echelon forms of m
+     */
+    public enum Pivoting {
+        PARTIAL,
+        FULL
+    }
+
+
+    // the width of a column block (right-looking update) and of a column tile of the trailing rows
+    private static volatile int _blockSize = 32;
+    private static final int COLUMN_TILE = 256;
+    private static volatile long _parallelThreshold = 1L << 16;
+    // the largest multiplier an update may leave in L before the matrix is factorized again (see update), the
+    // rounding errors of an update grow up to about this factor over those of a new factorization
+    private static final double MAX_MULTIPLIER = 1e3;
+
+    // the factors, one array per row so that a row interchange only swaps two references
+    private final double[][] _lu;
+    private final int[] _pivot;
+    private final int[] _pivotCols;
+    private final int[] _columns;
+    private final Pivoting _pivoting;
+    private final double _norm1;
+    private final int _rows;
+    private final int _cols;
+    private final double _tolerance;
+    private int _pivotSign;
+    private final int _rank;
+
+    /**
+     * factorize a given matrix into P*m = L*U using gaussian elimination with partial pivoting.
+     * the elimination works in place on a working copy of m with one array per row, the multipliers of L
+     * are stored in the eliminated positions below the pivots, and columns without a pivot are
+     * skipped so that U is also a row echelon form of m (works on non-square matrices as well).
+     * only a column that is exactly zero from the current row downwards has no pivot, so the rows and columns
+     * of m may be on any scales
+     * @param m represents the matrix operand, it is not modified
+     */
+    public LUDecomposition(Matrix m){
+        this(m, Pivoting.PARTIAL, 0, false);
+    }
+
+    /**
+     * factorize a given matrix with the given pivoting to decide its rank, treating the entries that are only
+     * rounding leftovers of the elimination (max(height, width) * ulp of the largest entry) as zero. the cutoff is
+     * relative to the largest entry, so the pivots of rows or columns on a much smaller scale are dropped as well
+     * @param m represents the matrix operand, it is not modified
+     * @param pivoting represents the choice of pivots
+     */
+    public LUDecomposition(Matrix m, Pivoting pivoting){
+        this(m, pivoting, 0, true);
+    }
+
+    /**
+     * factorize a given matrix with the given pivoting and zero tolerance
+     * @param m represents the matrix operand, it is not modified
+     * @param pivoting represents the choice of pivots
+     * @param tolerance represents the absolute value at or below which a candidate pivot is treated as zero,
+     *                  it decides the rank and whether the matrix is singular
+     */
+    public LUDecomposition(Matrix m, Pivoting pivoting, double tolerance){
+        this(m, pivoting, requireTolerance(tolerance), false);
+    }
+
+    private LUDecomposition(Matrix m, Pivoting pivoting, double tolerance, boolean defaultTolerance){
+        _rows = m.getHeight();
+        _cols = m.getWidth();
+        _lu = new double[_rows][];
+        _pivot = new int[_rows];
+        _pivotCols = new int[Math.min(_rows, _cols)];
+        _columns = new int[_cols];
+        _pivoting = pivoting;
+        _pivotSign = 1;
+
+        double norm = 0;
+        double[] columnSums = new double[_cols];
+        for (int y = 0; y < _rows; y++) {
+            _pivot[y] = y;
+            _lu[y] = m.getRow(y);
+            for (int x = 0; x < _cols; x++) {
+                double abs = Math.abs(_lu[y][x]);
+                norm = Math.max(norm, abs);
+                columnSums[x] += abs;
+            }
+        }
+        for (int x = 0; x < _cols; x++)
+            _columns[x] = x;
+        _norm1 = Arrays.stream(columnSums).max().orElse(0);
+
+        // for deciding the rank, pivots that are only rounding leftovers of the elimination are treated as zero
+        _tolerance = defaultTolerance ? Math.max(_rows, _cols) * Math.ulp(norm) : tolerance;
+
+        _rank = pivoting == Pivoting.FULL ? eliminateFully() : eliminate();
+    }
+
+    // the factorization of an updated matrix, with the permutations and the tolerance of the source
+    private LUDecomposition(LUDecomposition source, double[][] lu, double norm1){
+        _rows = source._rows;
+        _cols = source._cols;
+        _lu = lu;
+        _pivot = source._pivot;
+        _pivotCols = source._pivotCols;
+        _columns = source._columns;
+        _pivoting = source._pivoting;
+        _norm1 = norm1;
+        _tolerance = source._tolerance;
+        _pivotSign = source._pivotSign;
+        _rank = source._rank;
+    }
+
+    private static double requireTolerance(double tolerance){
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("the tolerance must be zero or positive");
+        return tolerance;
+    }
+
+    // the elimination with partial pivoting, returns the rank
+    private int eliminate(){
+        // right-looking blocked elimination: the pivots of a block of columns eliminate only the columns of
+        // the block, and the rest of the columns get all the pivots of the block in a single pass over the rows.
+        // every value still gets the same operations in the same order as in column by column elimination
+        int blockSize = _blockSize;
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(_cols);
+
+        int row = 0, c0 = 0;
+        for (; c0 < _cols && row < _rows; c0 += blockSize) {
+            int c1 = Math.min(c0 + blockSize, _cols);
+            int first = row;
+
+            for (int col = c0; col < c1 && row < _rows; col++) {
+                // find the largest entry in the column from the current row and onwards
+                int p = row;
+                double max = Math.abs(_lu[row][col]);
+                for (int i = row + 1; i < _rows; i++) {
+                    double abs = Math.abs(_lu[i][col]);
+                    if (abs > max) {
+                        max = abs;
+                        p = i;
+                    }
+                }
+
+                // the column is zero from the current row downwards, it has no pivot
+                if (max <= _tolerance) {
+                    for (int i = row; i < _rows; i++)
+                        _lu[i][col] = 0;
+                    continue;
+                }
+
+                if (p != row) {
+                    double[] temp = _lu[p];
+                    _lu[p] = _lu[row];
+                    _lu[row] = temp;
+                    int t = _pivot[p];
+                    _pivot[p] = _pivot[row];
+                    _pivot[row] = t;
+                    _pivotSign = -_pivotSign;
+                }
+
+                double[] pivotRow = _lu[row];
+                double pivot = pivotRow[col];
+                for (int i = row + 1; i < _rows; i++) {
+                    double[] r = _lu[i];
+                    double multiple = r[col] / pivot;
+                    r[col] = multiple;
+                    if (multiple != 0)
+                        for (int j = col + 1; j < c1; j++)
+                            r[j] -= multiple * pivotRow[j];
+                }
+
+                _pivotCols[row++] = col;
+            }
+
+            if (c1 < _cols && row > first)
+                updateTrailing(first, row, c1);
+            if (job != null)
+                job.advance(c1 - c0);
+        }
+        // the columns left once every row has a pivot have nothing to eliminate
+        if (job != null && c0 < _cols)
+            job.advance(_cols - c0);
+        return row;
+    }
+
+    // the elimination with full pivoting, returns the rank
+    private int eliminateFully(){
+        Kernels kernels = Kernels.get();
+        int n = Math.min(_rows, _cols);
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(n);
+
+        for (int k = 0; k < n; k++) {
+            // find the largest entry of the remaining matrix
+            int p = k, q = k;
+            double max = 0;
+            for (int i = k; i < _rows; i++) {
+                double[] r = _lu[i];
+                for (int j = k; j < _cols; j++) {
+                    double abs = Math.abs(r[j]);
+                    if (abs > max) {
+                        max = abs;
+                        p = i;
+                        q = j;
+                    }
+                }
+            }
+
+            // the remaining matrix is zero, its rank is k
+            if (max <= _tolerance) {
+                for (int i = k; i < _rows; i++)
+                    Arrays.fill(_lu[i], k, _cols, 0);
+                if (job != null)
+                    job.advance(n - k);
+                return k;
+            }
+
+            if (p != k) {
+                double[] temp = _lu[p];
+                _lu[p] = _lu[k];
+                _lu[k] = temp;
+                int t = _pivot[p];
+                _pivot[p] = _pivot[k];
+                _pivot[k] = t;
+                _pivotSign = -_pivotSign;
+            }
+            if (q != k) {
+                for (double[] r : _lu) {
+                    double temp = r[q];
+                    r[q] = r[k];
+                    r[k] = temp;
+                }
+                int t = _columns[q];
+                _columns[q] = _columns[k];
+                _columns[k] = t;
+                _pivotSign = -_pivotSign;
+            }
+
+            double[] pivotRow = _lu[k];
+            double pivot = pivotRow[k];
+            for (int i = k + 1; i < _rows; i++) {
+                double[] r = _lu[i];
+                double multiple = r[k] / pivot;
+                r[k] = multiple;
+                if (multiple != 0)
+                    kernels.axpy(-multiple, pivotRow, k + 1, r, k + 1, _cols - k - 1);
+            }
+
+            _pivotCols[k] = k;
+            if (job != null)
+                job.advance(1);
+        }
+        return n;
+    }
+
+    /**
+     * @param blockSize represents the amount of columns whose pivots are applied to the rest of the matrix together
+     */
+    public static void setBlockSize(int blockSize){
+        if (blockSize < 1)
+            throw new IllegalArgumentException("block size must be positive");
+        _blockSize = blockSize;
+    }
+
+    public static int getBlockSize(){
+        return _blockSize;
+    }
+
+    /**
+     * @param threshold represents the amount of multiply-adds of an update (of the trailing rows, or of the rows
+     *                  above a block of pivots in the reduced row echelon form) below which it isn't split between
+     *                  threads, it is also the least amount of multiply-adds of every thread
+     */
+    public static void setParallelThreshold(long threshold){
+        if (threshold < 1)
+            throw new IllegalArgumentException("the parallel threshold must be positive");
+        _parallelThreshold = threshold;
+    }
+
+    public static long getParallelThreshold(){
+        return _parallelThreshold;
+    }
+
+    public int getRank(){
+        return _rank;
+    }
+
+    public boolean isSquare(){
+        return _rows == _cols;
+    }
+
+    public boolean isSingular(){
+        return !isSquare() || _rank < _rows;
+    }
+
+    public Pivoting getPivoting(){
+        return _pivoting;
+    }
+
+    /**
+     * @return the absolute value at or below which a candidate pivot was treated as zero
+     */
+    public double getTolerance(){
+        return _tolerance;
+    }
+
+    /**
+     * @return the sign of the row (and column) permutations (1 for an even amount of swaps, -1 for an odd amount)
+     */
+    public int getPivotSign(){
+        return _pivotSign;
+    }
+
+    /**
+     * @return the row permutation, row i of P*m is row getPivot()[i] of m
+     */
+    public int[] getPivot(){
+        return _pivot.clone();
+    }
+
+    /**
+     * @return the permutation matrix P such that P*m = L*U
+     */
+    public Matrix getP(){
+        Matrix result = new Matrix(_rows, _rows);
+        for (int y = 0; y < _rows; y++)
+            result.set(_pivot[y], y, 1);
+        return result;
+    }
+
+    /**
+     * @return the column permutation, column i of m*Q is column getColumnPivot()[i] of m (the identity for partial
+     * pivoting)
+     */
+    public int[] getColumnPivot(){
+        return _columns.clone();
+    }
+
+    /**
+     * @return the permutation matrix Q such that P*m*Q = L*U (the identity for partial pivoting)
+     */
+    public Matrix getQ(){
+        Matrix result = new Matrix(_cols, _cols);
+        for (int x = 0; x < _cols; x++)
+            result.set(x, _columns[x], 1);
+        return result;
+    }
+
+    /**
+     * @return the unit lower triangular factor L (height x height)
+     */
+    public Matrix getL(){
+        Matrix result = new Matrix(_rows, _rows);
+        for (int y = 0; y < _rows; y++) {
+            for (int k = 0; k < Math.min(y, _rank); k++)
+                result.set(k, y, _lu[y][_pivotCols[k]]);
+            result.set(y, y, 1);
+        }
+        return result;
+    }
+
+    /**
+     * @return the upper triangular (row echelon) factor U, of the same dimensions as the factorized matrix
+     */
+    public Matrix getU(){
+        Matrix result = new Matrix(_cols, _rows);
+        for (int y = 0; y < _rank; y++)
+            for (int x = _pivotCols[y]; x < _cols; x++)
+                result.set(x, y, _lu[y][x]);
+        return result;
+    }
+
+    /**
+     * calculate the determinant of the factorized matrix, the sign of the permutation times the product of the pivots
+     * @return the determinant
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     */
+    public double det() throws NonSquareMatrixException {
+        if (!isSquare())
+            throw new NonSquareMatrixException();
+        if (_rank < _rows)
+            return 0;
+
+        double result = _pivotSign;
+        for (int i = 0; i < _rows; i++)
+            result *= _lu[i][i];
+        return result;
+    }
+
+    /**
+     * calculate the row echelon form (with leading ones) from the U factor.
+     * the extra value of the result holds the product of the pivots times the permutation sign,
+     * the same as the multiples stored aside by the elementary row operations algorithm
+     * @return the row echelon form of the factorized matrix
+     * @throws IllegalStateException in case the matrix was factorized with full pivoting
+     */
+    public Matrix getRowEchelonForm(){
+        requirePartialPivoting();
+        Matrix result = toMatrix(echelonRows());
+        result.setExtraValue(pivotsProduct());
+        return result;
+    }
+
+    /**
+     * calculate the reduced row echelon form by erasing the entries above each leading one of the row echelon form
+     * @return the reduced row echelon form of the factorized matrix
+     * @throws IllegalStateException in case the matrix was factorized with full pivoting
+     */
+    public Matrix getReducedRowEchelonForm(){
+        requirePartialPivoting();
+        double[][] rows = echelonRows();
+
+        // the pivots are applied in blocks from the bottom, every block first to its own rows and then to all the
+        // rows above it in parallel. every row still gets the pivots below it from the bottom up
+        int blockSize = _blockSize;
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(_rank);
+
+        for (int end = _rank; end > 0; end -= blockSize) {
+            int last = end;
+            int first = Math.max(0, last - blockSize);
+
+            for (int k = last - 1; k > first; k--)
+                eliminateAbove(rows, first, k, k, k + 1);
+
+            if (first > 0) {
+                long work = (long) (last - first) * (_cols - _pivotCols[first]);
+                int grain = (int) Math.min(first, _parallelThreshold / Math.max(1, work));
+                RangeTask.run(0, first, grain, (from, to) -> eliminateAbove(rows, from, to, first, last));
+            }
+            if (job != null)
+                job.advance(last - first);
+        }
+
+        Matrix result = toMatrix(rows);
+        result.setExtraValue(pivotsProduct());
+        return result;
+    }
+
+    // erase the entries of the pivots [first, last) (from the last one) in the rows [from, to) of a row echelon form
+    private void eliminateAbove(double[][] rows, int from, int to, int first, int last){
+        Kernels kernels = Kernels.get();
+        for (int i = from; i < to; i++) {
+            double[] r = rows[i];
+            for (int k = last - 1; k >= first; k--) {
+                int col = _pivotCols[k];
+                double multiple = r[col];
+                if (multiple != 0) {
+                    r[col] = 0;
+                    kernels.axpy(-multiple, rows[k], col + 1, r, col + 1, _cols - col - 1);
+                }
+            }
+        }
+    }
+
+    // apply the pivots [first, last) to the columns from c1 onwards: first within their own rows (the U part),
+    // then to all the rows below them (the trailing matrix), which is split between threads if it is large enough
+    private void updateTrailing(int first, int last, int c1){
+        Kernels kernels = Kernels.get();
+        for (int k = first + 1; k < last; k++)
+            for (int p = first; p < k; p++) {
+                double multiple = _lu[k][_pivotCols[p]];
+                if (multiple != 0)
+                    kernels.axpy(-multiple, _lu[p], c1, _lu[k], c1, _cols - c1);
+            }
+
+        if (last >= _rows)
+            return;
+
+        long work = (long) (last - first) * (_cols - c1);
+        int grain = (int) Math.min(_rows, _parallelThreshold / Math.max(1, work));
+        RangeTask.run(last, _rows, grain, (from, to) -> {
+            // a tile of columns of the pivot rows stays in the cache while it is applied to every row
+            for (int j0 = c1; j0 < _cols; j0 += COLUMN_TILE) {
+                int length = Math.min(COLUMN_TILE, _cols - j0);
+                for (int i = from; i < to; i++) {
+                    double[] r = _lu[i];
+                    for (int p = first; p < last; p++) {
+                        double multiple = r[_pivotCols[p]];
+                        if (multiple != 0)
+                            kernels.axpy(-multiple, _lu[p], j0, r, j0, length);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * solve the equation m*X = b using forward and back substitution
+     * @param b represents the right hand side, must have the same height as the factorized matrix
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the factorized matrix is singular
+     * @throws IncompatibleDimensionsException in case b has a different height than the factorized matrix
+     */
+    public Matrix solve(Matrix b) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (!isSquare())
+            throw new NonSquareMatrixException();
+        if (b.getHeight() != _rows)
+            throw new IncompatibleDimensionsException();
+        if (isSingular())
+            throw new NonInvertibleMatrixException();
+
+        int n = _rows;
+        double[][] x = new double[n][];
+        for (int y = 0; y < n; y++)
+            x[y] = b.getRow(_pivot[y]);
+
+        substitute(x);
+        return toMatrix(unpermute(x));
+    }
+
+    /**
+     * solve the equation m*X = b and improve the solution by iterative refinement: the residual b - m*X is
+     * calculated with compensated (twice the working precision) sums, the correction is solved with the factors and
+     * added to X, until the correction stops shrinking or is below the rounding of X
+     * @param m represents the factorized matrix, it is needed for the residuals
+     * @param b represents the right hand side, must have the same height as the factorized matrix
+     * @param maxIterations represents the maximal amount of corrections
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the factorized matrix is singular
+     * @throws IncompatibleDimensionsException in case m isn't of the dimensions of the factorized matrix, or b has
+     * a different height
+     */
+    public Matrix solveRefined(Matrix m, Matrix b, int maxIterations) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (m.getWidth() != _cols || m.getHeight() != _rows)
+            throw new IncompatibleDimensionsException();
+
+        Matrix x = solve(b);
+        int n = _rows, k = b.getWidth();
+        double[][] a = new double[n][], rhs = new double[n][], solution = new double[n][];
+        for (int y = 0; y < n; y++) {
+            a[y] = m.getRow(y);
+            rhs[y] = b.getRow(y);
+            solution[y] = x.getRow(y);
+        }
+
+        double previous = Double.POSITIVE_INFINITY;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[][] d = new double[n][];
+            for (int y = 0; y < n; y++)
+                d[y] = residual(a[_pivot[y]], rhs[_pivot[y]], solution);
+            substitute(d);
+            d = unpermute(d);
+
+            double correction = 0, size = 0;
+            for (int y = 0; y < n; y++)
+                for (int c = 0; c < k; c++) {
+                    solution[y][c] += d[y][c];
+                    correction = Math.max(correction, Math.abs(d[y][c]));
+                    size = Math.max(size, Math.abs(solution[y][c]));
+                }
+
+            // stop once the correction is lost in the rounding of the solution, or doesn't converge anymore
+            if (correction <= Math.ulp(size) || correction > previous / 2)
+                break;
+            previous = correction;
+        }
+
+        return toMatrix(solution);
+    }
+
+    // the row of b - m*X for a row of m and of b, the dot products are summed with their rounding errors
+    private static double[] residual(double[] row, double[] b, double[][] x){
+        double[] result = new double[b.length];
+        for (int c = 0; c < b.length; c++) {
+            double sum = b[c], error = 0;
+            for (int j = 0; j < row.length; j++) {
+                double product = -row[j] * x[j][c];
+                double productError = Math.fma(-row[j], x[j][c], -product);
+                double t = sum + product;
+                double v = t - sum;
+                error += productError + ((sum - (t - v)) + (product - v));
+                sum = t;
+            }
+            result[c] = sum + error;
+        }
+        return result;
+    }
+
+    /**
+     * estimate the condition number of the factorized matrix in the 1-norm, |m|*|m^-1|, without forming the
+     * inverse. |m^-1| is estimated by Hager's method (as improved by Higham) from a few solves with the factors,
+     * the estimate is a lower bound that is almost always within a factor of 3 of the exact value
+     * @return the estimated condition number, infinity for a singular matrix
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     */
+    public double conditionNumber() throws NonSquareMatrixException {
+        if (!isSquare())
+            throw new NonSquareMatrixException();
+        if (isSingular())
+            return Double.POSITIVE_INFINITY;
+
+        int n = _rows;
+        if (n == 0)
+            return 0;
+
+        double[] x = new double[n];
+        Arrays.fill(x, 1.0 / n);
+        double estimate = 0;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            double[] y = solveVector(x, false);
+            double norm = 0;
+            for (double v : y)
+                norm += Math.abs(v);
+            if (iteration > 0 && norm <= estimate)
+                break;
+            estimate = norm;
+
+            double[] z = new double[n];
+            for (int i = 0; i < n; i++)
+                z[i] = y[i] >= 0 ? 1 : -1;
+            z = solveVector(z, true);
+
+            // x is already the best unit vector if no entry of z is larger than z^t*x
+            int j = 0;
+            double dot = 0;
+            for (int i = 0; i < n; i++) {
+                dot += z[i] * x[i];
+                if (Math.abs(z[i]) > Math.abs(z[j]))
+                    j = i;
+            }
+            if (Math.abs(z[j]) <= dot)
+                break;
+
+            Arrays.fill(x, 0);
+            x[j] = 1;
+        }
+
+        // an alternating vector catches the matrices the iteration underestimates
+        for (int i = 0; i < n; i++)
+            x[i] = (i % 2 == 0 ? 1 : -1) * (1 + (double) i / Math.max(1, n - 1));
+        double norm = 0;
+        for (double v : solveVector(x, false))
+            norm += Math.abs(v);
+        estimate = Math.max(estimate, 2 * norm / (3 * n));
+
+        return _norm1 * estimate;
+    }
+
+    // solve m*x = v (or m^t*x = v) for a single vector of a squared, nonsingular factorized matrix
+    private double[] solveVector(double[] v, boolean transposed){
+        int n = _rows;
+        double[] x = new double[n];
+
+        if (!transposed) {
+            // P*m*Q = L*U, so x = Q*U^-1*L^-1*P*v
+            double[] z = new double[n];
+            for (int i = 0; i < n; i++)
+                z[i] = v[_pivot[i]];
+            for (int k = 0; k < n; k++)
+                for (int i = k + 1; i < n; i++)
+                    z[i] -= _lu[i][k] * z[k];
+            for (int k = n - 1; k >= 0; k--) {
+                z[k] /= _lu[k][k];
+                for (int i = 0; i < k; i++)
+                    z[i] -= _lu[i][k] * z[k];
+            }
+            for (int k = 0; k < n; k++)
+                x[_columns[k]] = z[k];
+        } else {
+            // m^t = Q*U^t*L^t*P, so x = P^t*L^-t*U^-t*Q^t*v
+            double[] z = new double[n];
+            for (int k = 0; k < n; k++)
+                z[k] = v[_columns[k]];
+            for (int k = 0; k < n; k++) {
+                double[] r = _lu[k];
+                z[k] /= r[k];
+                for (int j = k + 1; j < n; j++)
+                    z[j] -= r[j] * z[k];
+            }
+            for (int k = n - 1; k >= 0; k--) {
+                double[] r = _lu[k];
+                for (int j = 0; j < k; j++)
+                    z[j] -= r[j] * z[k];
+            }
+            for (int i = 0; i < n; i++)
+                x[_pivot[i]] = z[i];
+        }
+
+        return x;
+    }
+
+    /**
+     * calculate the inverse of the factorized matrix by solving m*X = I
+     * @return the result of m^-1
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the factorized matrix is singular
+     */
+    public Matrix inverse() throws NonSquareMatrixException, NonInvertibleMatrixException {
+        if (!isSquare())
+            throw new NonSquareMatrixException();
+        if (isSingular())
+            throw new NonInvertibleMatrixException();
+
+        double[][] x = new double[_rows][_rows];
+        for (int y = 0; y < _rows; y++)
+            x[y][_pivot[y]] = 1;
+
+        substitute(x);
+        return toMatrix(unpermute(x));
+    }
+
+    /**
+     * factorize m + u*v^t from the factors of m in O(n^2) operations (Bennett's algorithm) instead of O(n^3). the
+     * permutations are kept rather than chosen again, so once a multiplier of the updated L grows beyond
+     * MAX_MULTIPLIER or a pivot vanishes, the updated matrix is rebuilt from the factors and factorized from scratch.
+     * for several columns of u and v the updates of the columns are applied one after another (m + U*V^t).
+     * the accuracy lost to larger multipliers is regained by solveRefined with the updated matrix, and the 1-norm
+     * used by conditionNumber is bounded by |m| + |u|*|v| instead of recalculated
+     * @param u represents the left vectors of the update, a column of the height of m for every update
+     * @param v represents the right vectors of the update, of the dimensions of u
+     * @return the factorization of m + u*v^t
+     * @throws NonSquareMatrixException in case the factorized matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the factorized matrix is singular
+     * @throws IncompatibleDimensionsException in case u and v don't have the height of m or the same width
+     */
+    public LUDecomposition update(Matrix u, Matrix v) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        if (!isSquare())
+            throw new NonSquareMatrixException();
+        if (u.getHeight() != _rows || v.getHeight() != _rows || u.getWidth() != v.getWidth())
+            throw new IncompatibleDimensionsException();
+        if (isSingular())
+            throw new NonInvertibleMatrixException();
+
+        int n = _rows;
+        double[][] lu = new double[n][];
+        for (int y = 0; y < n; y++)
+            lu[y] = _lu[y].clone();
+
+        double norm = _norm1;
+        boolean isStable = true;
+        for (int c = 0; c < u.getWidth() && isStable; c++) {
+            // the update of P*m*Q is (P*u)*(Q^t*v)^t
+            double[] x = new double[n], y = new double[n];
+            double sum = 0, max = 0;
+            for (int i = 0; i < n; i++) {
+                x[i] = u.get(c, _pivot[i]);
+                y[i] = v.get(c, _columns[i]);
+                sum += Math.abs(x[i]);
+                max = Math.max(max, Math.abs(y[i]));
+            }
+            norm += sum * max;
+            isStable = updateFactors(lu, x, y);
+        }
+        if (isStable)
+            return new LUDecomposition(this, lu, norm);
+
+        // P^t*L*U*Q^t + u*v^t
+        Matrix product = MatrixCalculations.multiply(getL(), getU());
+        Matrix m = new Matrix(n, n);
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < n; x++)
+                m.set(_columns[x], _pivot[y], product.get(x, y));
+        m = MatrixCalculations.add(m, MatrixCalculations.multiply(u, MatrixCalculations.transpose(v)));
+        return new LUDecomposition(m, _pivoting, _tolerance, false);
+    }
+
+    // update the factors L*U to L*U + x*y^t in place, returns false once the update is no longer stable
+    private boolean updateFactors(double[][] lu, double[] x, double[] y){
+        Kernels kernels = Kernels.get();
+        int n = _rows;
+        for (int k = 0; k < n; k++) {
+            double[] r = lu[k];
+            r[k] += x[k] * y[k];
+            if (Math.abs(r[k]) <= _tolerance)
+                return false;
+
+            y[k] /= r[k];
+            kernels.axpy(x[k], y, k + 1, r, k + 1, n - k - 1);
+            for (int i = k + 1; i < n; i++) {
+                double[] ri = lu[i];
+                x[i] -= x[k] * ri[k];
+                ri[k] += y[k] * x[i];
+                if (Math.abs(ri[k]) > MAX_MULTIPLIER)
+                    return false;
+            }
+            kernels.axpy(-y[k], r, k + 1, y, k + 1, n - k - 1);
+        }
+        return true;
+    }
+
+    // the rows of Q*X, undoing the column permutation of full pivoting on a solution X of P*m*Q
+    private double[][] unpermute(double[][] x){
+        if (_pivoting != Pivoting.FULL)
+            return x;
+
+        double[][] result = new double[x.length][];
+        for (int k = 0; k < x.length; k++)
+            result[_columns[k]] = x[k];
+        return result;
+    }
+
+    private void requirePartialPivoting(){
+        if (_pivoting != Pivoting.PARTIAL)
+            throw new IllegalStateException("the echelon forms need a factorization with partial pivoting");
+    }
+
+    // solve L*U*X = x in place, x must already be permuted
+    private void substitute(double[][] x){
+        int n = _rows;
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(2L * n);
+
+        // forward substitution with the unit lower factor
+        for (int k = 0; k < n; k++) {
+            for (int i = k + 1; i < n; i++) {
+                double multiple = _lu[i][k];
+                if (multiple != 0) {
+                    double[] xi = x[i], xk = x[k];
+                    for (int j = 0; j < xi.length; j++)
+                        xi[j] -= multiple * xk[j];
+                }
+            }
+            if (job != null)
+                job.advance(1);
+        }
+
+        // back substitution with the upper factor
+        for (int k = n - 1; k >= 0; k--) {
+            double[] xk = x[k];
+            double pivot = _lu[k][k];
+            for (int j = 0; j < xk.length; j++)
+                xk[j] /= pivot;
+            for (int i = 0; i < k; i++) {
+                double multiple = _lu[i][k];
+                if (multiple != 0) {
+                    double[] xi = x[i];
+                    for (int j = 0; j < xi.length; j++)
+                        xi[j] -= multiple * xk[j];
+                }
+            }
+            if (job != null)
+                job.advance(1);
+        }
+    }
+
+    // the rows of U scaled so that every pivot is a leading one
+    private double[][] echelonRows(){
+        double[][] rows = new double[_rows][_cols];
+
+        for (int k = 0; k < _rank; k++) {
+            int col = _pivotCols[k];
+            double pivot = _lu[k][col];
+            rows[k][col] = 1;
+            for (int j = col + 1; j < _cols; j++)
+                rows[k][j] = _lu[k][j] / pivot;
+        }
+
+        return rows;
+    }
+
+    // the multiples stored aside while putting the leading ones, times the permutation sign
+    private double pivotsProduct(){
+        double result = _pivotSign;
+        for (int k = 0; k < _rank; k++)
+            result *= _lu[k][_pivotCols[k]];
+        return result;
+    }
+
+    private Matrix toMatrix(double[][] rows){
+        Matrix result = new Matrix(rows.length == 0 ? 0 : rows[0].length, rows.length);
+        for (int y = 0; y < rows.length; y++)
+            result.setRow(y, rows[y]);
+        return result;
+    }
+}
@@ -0,0 +1,287 @@
+package logic;
+
+import logic.exceptions.NotAVectorException;
+import logic.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+
+public class Matrix implements MatrixView {
+    /**
+     * the order in which the values are stored in the backing array,
+     * ROW_MAJOR keeps every row contiguous and COLUMN_MAJOR keeps every column contiguous
+     */
+    public enum Layout {
+        ROW_MAJOR,
+        COLUMN_MAJOR
+    }
+
+    private final double [] _matrix;
+    private final Layout _layout;
+    private final int _width;
+    private final int _height;
+    private final boolean _isHomogeneous;
+    private double _extraValue;
+
+    public Matrix(Matrix m){
+        this(m, m.getLayout());
+    }
+
+    /**
+     * copy a given matrix into a new matrix with the given layout
+     * @param m represents the matrix to copy
+     * @param layout represents the layout of the new matrix
+     */
+    public Matrix(Matrix m, Layout layout){
+        this(m.getWidth(), m.getHeight(), m.isHomogeneous(), layout);
+        Metrics.countCopy();
+        if (layout == m.getLayout())
+            System.arraycopy(m._matrix, 0, _matrix, 0, _matrix.length);
+        else
+            for (int y = 0; y < _height; y++)
+                for (int x = 0; x < _width; x++)
+                    set(x, y, m.get(x, y));
+        _extraValue = m.getExtraValue();
+    }
+
+    public Matrix(int width, int height){
+        this(width, height, true);
+    }
+
+    public Matrix(int width, int height, boolean isHomogeneous){
+        this(width, height, isHomogeneous, Layout.ROW_MAJOR);
+    }
+
+    public Matrix(int width, int height, boolean isHomogeneous, Layout layout){
+        _width = width;
+        _height = height;
+        _isHomogeneous = isHomogeneous;
+        _layout = layout;
+        _matrix = new double[width * height];
+        _extraValue = 1;
+    }
+
+    // wraps the given array without copying it
+    Matrix(int width, int height, Layout layout, double[] data){
+        _width = width;
+        _height = height;
+        _isHomogeneous = true;
+        _layout = layout;
+        _matrix = data;
+        _extraValue = 1;
+    }
+
+    @Override
+    public double get(int x, int y){
+        return _matrix[index(x, y)];
+    }
+
+    public void set(int x, int y, double val){
+        _matrix[index(x, y)] = val;
+    }
+
+    @Override
+    public int getWidth(){
+        return _width;
+    }
+
+    @Override
+    public int getHeight(){
+        return _height;
+    }
+
+    public Layout getLayout(){
+        return _layout;
+    }
+
+    public void setExtraValue(double x){
+        _extraValue = x;
+    }
+
+    public double getExtraValue(){
+        return _extraValue;
+    }
+
+    public boolean isHomogeneous(){
+        return _isHomogeneous;
+    }
+
+    public boolean isZero(){
+        for (double v : _matrix)
+            if (v != 0)
+                return false;
+        return true;
+    }
+
+    @Override
+    public long countNonZeros(){
+        long result = 0;
+        for (double v : _matrix)
+            if (v != 0)
+                result++;
+        return result;
+    }
+
+    @Override
+    public Matrix toMatrix(){
+        return new Matrix(this);
+    }
+
+    /**
+     * copy the values of a row
+     * @param y represents the index of the row
+     * @return a new array holding the row values from left to right
+     */
+    public double[] getRow(int y){
+        double[] result = new double[_width];
+        if (_layout == Layout.ROW_MAJOR)
+            System.arraycopy(_matrix, y * _width, result, 0, _width);
+        else
+            for (int x = 0; x < _width; x++)
+                result[x] = _matrix[x * _height + y];
+        return result;
+    }
+
+    /**
+     * overwrite the values of a row
+     * @param y represents the index of the row
+     * @param values represents the new row values from left to right, must be of the matrix width
+     */
+    public void setRow(int y, double[] values){
+        if (values.length != _width)
+            throw new IllegalArgumentException("row length " + values.length + " doesn't match width " + _width);
+
+        if (_layout == Layout.ROW_MAJOR)
+            System.arraycopy(values, 0, _matrix, y * _width, _width);
+        else
+            for (int x = 0; x < _width; x++)
+                _matrix[x * _height + y] = values[x];
+    }
+
+    /**
+     * get a view of a row, changes to the view are written through to the matrix
+     * @param y represents the index of the row
+     * @return a view of the row
+     */
+    public Row viewRow(int y){
+        return new Row(_matrix, rowOffset(y), columnStride(), _width);
+    }
+
+    /**
+     * a window over the backing array of a matrix with a fixed stride between consecutive values
+     */
+    public static class Row {
+        private final double[] _data;
+        private final int _offset;
+        private final int _stride;
+        private final int _length;
+
+        private Row(double[] data, int offset, int stride, int length){
+            _data = data;
+            _offset = offset;
+            _stride = stride;
+            _length = length;
+        }
+
+        public double get(int i){
+            return _data[_offset + i * _stride];
+        }
+
+        public void set(int i, double val){
+            _data[_offset + i * _stride] = val;
+        }
+
+        public int length(){
+            return _length;
+        }
+    }
+
+    // the backing array, for the kernels that walk it directly
+    double[] getData(){
+        return _matrix;
+    }
+
+    int index(int x, int y){
+        return _layout == Layout.ROW_MAJOR ? y * _width + x : x * _height + y;
+    }
+
+    // the position of the first value of row y in the backing array
+    int rowOffset(int y){
+        return _layout == Layout.ROW_MAJOR ? y * _width : y;
+    }
+
+    // the distance in the backing array between two values that are next to each other in a row
+    int columnStride(){
+        return _layout == Layout.ROW_MAJOR ? 1 : _height;
+    }
+
+    /**
+     * @param m represents a matrix
+     * @return m itself if it is row major, otherwise a row major copy of it
+     */
+    static Matrix rowMajor(Matrix m){
+        return m.getLayout() == Layout.ROW_MAJOR ? m : new Matrix(m, Layout.ROW_MAJOR);
+    }
+
+    /**
+     * get an iterator for the values of a vector
+     * @return an iterator that goes through the values in order, without boxing them (see nextDouble)
+     * @throws NotAVectorException in case the given matrix is not a vector
+     */
+    public PrimitiveIterator.OfDouble iterator() throws NotAVectorException {
+        return Spliterators.iterator(stream().spliterator());
+    }
+
+    /**
+     * get a stream of the values of a vector
+     * @return a stream of the values in order
+     * @throws NotAVectorException in case the given matrix is not a vector
+     */
+    public DoubleStream stream() throws NotAVectorException {
+        if (_width != 1 && _height != 1)
+            throw new NotAVectorException();
+
+        // a vector is contiguous in both layouts
+        return Arrays.stream(_matrix);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Matrix m){
+            if (_width != m.getWidth() || _height != m.getHeight())
+                return false;
+
+            if (_layout == m.getLayout()) {
+                for (int i = 0; i < _matrix.length; i++)
+                    if (_matrix[i] != m._matrix[i])
+                        return false;
+                return true;
+            }
+
+            for (int x = 0; x < _width; x++)
+                for (int y = 0; y < _height; y++)
+                    if (get(x, y) != m.get(x, y))
+                        return false;
+
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * a hash of the dimensions and the values, consistent with equals (it doesn't depend on the layout)
+     */
+    @Override
+    public int hashCode() {
+        int result = 31 * _width + _height;
+        for (int y = 0; y < _height; y++)
+            for (int x = 0, i = rowOffset(y), stride = columnStride(); x < _width; x++, i += stride) {
+                double v = _matrix[i];
+                // 0.0 and -0.0 are equal
+                result = 31 * result + (v == 0 ? 0 : Double.hashCode(v));
+            }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package logic;
+
+/**
+ * a batch of same-shaped (small) matrices packed into a single array as a structure of arrays: the value (x, y) of
+ * all the matrices is stored contiguously, so the value (x, y) of matrix b is at (y * width + x) * count + b.
+ * the batch kernels (see BatchCalculations) walk the matrices in the innermost loop, which the JIT vectorizes
+ */
+public class MatrixBatch {
+    private final double[] _data;
+    private final int _width;
+    private final int _height;
+    private final int _count;
+
+    /**
+     * create a batch of zero matrices
+     * @param width represents the width of every matrix
+     * @param height represents the height of every matrix
+     * @param count represents the amount of matrices
+     */
+    public MatrixBatch(int width, int height, int count){
+        this(width, height, count, new double[checkedSize(width, height, count)]);
+    }
+
+    /**
+     * wrap an array of packed matrices without copying it
+     * @param width represents the width of every matrix
+     * @param height represents the height of every matrix
+     * @param count represents the amount of matrices
+     * @param data represents the values, the value (x, y) of matrix b at (y * width + x) * count + b
+     */
+    public MatrixBatch(int width, int height, int count, double[] data){
+        if (data.length != checkedSize(width, height, count))
+            throw new IllegalArgumentException("a batch of " + count + " " + width + "x" + height
+                    + " matrices holds " + (long) width * height * count + " values, not " + data.length);
+
+        _width = width;
+        _height = height;
+        _count = count;
+        _data = data;
+    }
+
+    /**
+     * pack matrices of the same dimensions into a batch
+     * @param matrices represents the matrices to copy
+     * @return a batch of the matrices, in the given order
+     */
+    public static MatrixBatch of(Matrix... matrices){
+        if (matrices.length == 0)
+            throw new IllegalArgumentException("a batch must hold at least one matrix");
+
+        MatrixBatch result = new MatrixBatch(matrices[0].getWidth(), matrices[0].getHeight(), matrices.length);
+        for (int b = 0; b < matrices.length; b++)
+            result.setMatrix(b, matrices[b]);
+        return result;
+    }
+
+    public int getWidth(){
+        return _width;
+    }
+
+    public int getHeight(){
+        return _height;
+    }
+
+    public int getCount(){
+        return _count;
+    }
+
+    /**
+     * @return the backing array (not a copy), the value (x, y) of matrix b is at (y * width + x) * count + b
+     */
+    public double[] getData(){
+        return _data;
+    }
+
+    public double get(int b, int x, int y){
+        return _data[index(b, x, y)];
+    }
+
+    public void set(int b, int x, int y, double val){
+        _data[index(b, x, y)] = val;
+    }
+
+    /**
+     * @param b represents the index of the matrix
+     * @return a copy of matrix b
+     */
+    public Matrix getMatrix(int b){
+        Matrix result = new Matrix(_width, _height);
+        for (int y = 0; y < _height; y++)
+            for (int x = 0; x < _width; x++)
+                result.set(x, y, get(b, x, y));
+        return result;
+    }
+
+    /**
+     * overwrite matrix b with the values of a given matrix
+     * @param b represents the index of the matrix
+     * @param m represents the new values, it must have the dimensions of the batch
+     */
+    public void setMatrix(int b, Matrix m){
+        if (m.getWidth() != _width || m.getHeight() != _height)
+            throw new IllegalArgumentException("a " + m.getWidth() + "x" + m.getHeight()
+                    + " matrix doesn't fit a batch of " + _width + "x" + _height + " matrices");
+
+        for (int y = 0; y < _height; y++)
+            for (int x = 0; x < _width; x++)
+                set(b, x, y, m.get(x, y));
+    }
+
+    private int index(int b, int x, int y){
+        if (b < 0 || b >= _count || x < 0 || x >= _width || y < 0 || y >= _height)
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") of matrix " + b + " is outside of a batch of "
+                    + _count + " " + _width + "x" + _height + " matrices");
+        return (y * _width + x) * _count + b;
+    }
+
+    private static int checkedSize(int width, int height, int count){
+        if (width < 0 || height < 0 || count < 0)
+            throw new IllegalArgumentException("negative batch dimensions");
+        long size = (long) width * height * count;
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("a batch of " + size + " values doesn't fit in an array");
+        return (int) size;
+    }
+}
@@ -0,0 +1,356 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+import logic.exceptions.NotPositiveDefiniteMatrixException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * an optional memoization layer over the expensive operations, keyed by the content of the operand and the operation.
+ * the LU decomposition of every operand is stored as well, so a det, solve or invert of a matrix that was already
+ * factorized costs O(n^2) instead of O(n^3). the least recently used entries are evicted once the cache holds more
+ * than the given amount of entries or (estimated) bytes. all the methods are thread safe.
+ * returned matrices are copies, so changing them (or the operand) never changes the cached values
+ */
+public class MatrixCache {
+    // the estimated overhead of an entry (key, map node, result object headers) on top of its arrays
+    private static final long ENTRY_OVERHEAD = 128;
+
+    private final int _maxEntries;
+    private final long _maxBytes;
+    private final LinkedHashMap<Key, Entry> _entries;
+    private long _bytes;
+    private long _hits;
+    private long _misses;
+    private long _evictions;
+
+    /**
+     * @param maxEntries represents the maximal amount of cached results
+     * @param maxBytes represents the maximal estimated memory of the cached results (and their keys)
+     */
+    public MatrixCache(int maxEntries, long maxBytes){
+        if (maxEntries <= 0 || maxBytes <= 0)
+            throw new IllegalArgumentException("the cache bounds must be positive");
+
+        _maxEntries = maxEntries;
+        _maxBytes = maxBytes;
+        _entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * get the LU decomposition of a given matrix, factorizing it only if it isn't cached yet
+     * @param m represents the matrix operand
+     * @return the LU decomposition of m (shared, it is immutable)
+     */
+    public LUDecomposition lu(Matrix m){
+        Key key = new Key(Operation.LU, m);
+        LUDecomposition result = (LUDecomposition) lookup(key);
+        if (result == null) {
+            result = new LUDecomposition(m);
+            store(key, result, 8L * m.getWidth() * m.getHeight() + 8L * m.getHeight());
+        }
+        return result;
+    }
+
+    /**
+     * get the QR decomposition (with column pivoting) of a given matrix, factorizing it only if it isn't cached yet
+     * @param m represents the matrix operand
+     * @return the QR decomposition of m (shared, it is immutable)
+     */
+    public QRDecomposition qr(Matrix m){
+        Key key = new Key(Operation.QR, m);
+        QRDecomposition result = (QRDecomposition) lookup(key);
+        if (result == null) {
+            result = new QRDecomposition(m);
+            store(key, result, 8L * m.getWidth() * m.getHeight() + 12L * m.getWidth());
+        }
+        return result;
+    }
+
+    /**
+     * get the cholesky decomposition of a given matrix, factorizing it only if it isn't cached yet
+     * @param m represents the matrix operand
+     * @return the cholesky decomposition of m (shared, it is immutable)
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public CholeskyDecomposition cholesky(Matrix m) throws NonSquareMatrixException {
+        Key key = new Key(Operation.CHOLESKY, m);
+        CholeskyDecomposition result = (CholeskyDecomposition) lookup(key);
+        if (result == null) {
+            result = new CholeskyDecomposition(m);
+            store(key, result, 8L * m.getWidth() * m.getHeight());
+        }
+        return result;
+    }
+
+    /**
+     * calculate the determinant of a given matrix, from its cached LU decomposition
+     * @param m represents the matrix operand
+     * @return the result of |m|
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public double det(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        return lu(m).det();
+    }
+
+    /**
+     * solve the set of linear equations m*X = b, from the cached LU decomposition of m
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the coefficients matrix is singular
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    public Matrix solve(Matrix m, Matrix b) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        return lu(m).solve(b);
+    }
+
+    /**
+     * solve the set of linear equations m*X = b of a symmetric positive definite m, from its cached cholesky
+     * decomposition
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NotPositiveDefiniteMatrixException in case the coefficients matrix isn't positive definite
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    public Matrix solvePositiveDefinite(Matrix m, Matrix b) throws NonSquareMatrixException, NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        return cholesky(m).solve(b);
+    }
+
+    /**
+     * solve the least squares problem of m*X = b, from the cached QR decomposition of m
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the least squares solution X
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    public Matrix lstsq(Matrix m, Matrix b) throws IncompatibleDimensionsException {
+        if (b.getHeight() != m.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        return qr(m).solve(b);
+    }
+
+    /**
+     * solve the set of linear equations m*X = b with iterative refinement, from the cached LU decomposition of m
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the coefficients matrix is singular
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    public Matrix solveRefined(Matrix m, Matrix b) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        return lu(m).solveRefined(m, b, MatrixCalculations.REFINEMENT_ITERATIONS);
+    }
+
+    /**
+     * estimate the condition number of a given matrix in the 1-norm, from its cached LU decomposition
+     * @param m represents the matrix operand
+     * @return the estimated condition number, infinity for a singular matrix
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public double conditionNumber(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        return lu(m).conditionNumber();
+    }
+
+    /**
+     * calculate the inverted matrix of m, caching the result
+     * @param m represents the matrix operand
+     * @return the result of m^-1
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the matrix is singular
+     */
+    public Matrix invert(Matrix m) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        Key key = new Key(Operation.INVERT, m);
+        Matrix result = (Matrix) lookup(key);
+        if (result == null) {
+            result = lu(m).inverse();
+            store(key, result, bytes(result));
+        }
+        return new Matrix(result);
+    }
+
+    /**
+     * calculate the adjoint matrix of m, caching the result
+     * @param m represents the matrix operand
+     * @return the result of adj(m)
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public Matrix adjoint(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        Key key = new Key(Operation.ADJOINT, m);
+        Matrix result = (Matrix) lookup(key);
+        if (result == null) {
+            result = MatrixCalculations.adjoint(m, lu(m));
+            store(key, result, bytes(result));
+        }
+        return new Matrix(result);
+    }
+
+    /**
+     * calculate the row echelon form of a given matrix, caching the result
+     * @param m represents the matrix operand
+     * @return the row echelon form of m
+     */
+    public Matrix rowEchelonForm(Matrix m){
+        Key key = new Key(Operation.ROW_ECHELON_FORM, m);
+        Matrix result = (Matrix) lookup(key);
+        if (result == null) {
+            result = lu(m).getRowEchelonForm();
+            store(key, result, bytes(result));
+        }
+        return new Matrix(result);
+    }
+
+    /**
+     * calculate the reduced row echelon form of a given matrix, caching the result
+     * @param m represents the matrix operand
+     * @return the reduced row echelon form of m
+     */
+    public Matrix reducedRowEchelonForm(Matrix m){
+        Key key = new Key(Operation.REDUCED_ROW_ECHELON_FORM, m);
+        Matrix result = (Matrix) lookup(key);
+        if (result == null) {
+            result = lu(m).getReducedRowEchelonForm();
+            store(key, result, bytes(result));
+        }
+        return new Matrix(result);
+    }
+
+    public synchronized long getHits(){
+        return _hits;
+    }
+
+    public synchronized long getMisses(){
+        return _misses;
+    }
+
+    public synchronized long getEvictions(){
+        return _evictions;
+    }
+
+    /**
+     * @return the ratio of lookups that were found in the cache, 0 if there were no lookups
+     */
+    public synchronized double getHitRate(){
+        long lookups = _hits + _misses;
+        return lookups == 0 ? 0 : (double) _hits / lookups;
+    }
+
+    public synchronized int size(){
+        return _entries.size();
+    }
+
+    /**
+     * @return the estimated memory held by the cached results and their keys
+     */
+    public synchronized long getBytes(){
+        return _bytes;
+    }
+
+    public synchronized void clear(){
+        _entries.clear();
+        _bytes = 0;
+    }
+
+    @Override
+    public synchronized String toString(){
+        return String.format("MatrixCache[entries=%d, bytes=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]",
+                _entries.size(), _bytes, _hits, _misses, _evictions, getHitRate());
+    }
+
+    private synchronized Object lookup(Key key){
+        Entry entry = _entries.get(key);
+        if (entry == null) {
+            _misses++;
+            return null;
+        }
+        _hits++;
+        return entry.value;
+    }
+
+    private synchronized void store(Key key, Object value, long bytes){
+        // the key holds a snapshot of the operand, so it costs as much as the operand itself
+        bytes += bytes(key._matrix) + ENTRY_OVERHEAD;
+        if (bytes > _maxBytes)
+            return;
+
+        Entry previous = _entries.put(key.snapshot(), new Entry(value, bytes));
+        if (previous != null)
+            _bytes -= previous.bytes;
+        _bytes += bytes;
+
+        Iterator<Map.Entry<Key, Entry>> it = _entries.entrySet().iterator();
+        while ((_entries.size() > _maxEntries || _bytes > _maxBytes) && it.hasNext()) {
+            _bytes -= it.next().getValue().bytes;
+            it.remove();
+            _evictions++;
+        }
+    }
+
+    private static long bytes(Matrix m){
+        return 8L * m.getWidth() * m.getHeight();
+    }
+
+    private enum Operation {
+        LU,
+        QR,
+        CHOLESKY,
+        INVERT,
+        ADJOINT,
+        ROW_ECHELON_FORM,
+        REDUCED_ROW_ECHELON_FORM
+    }
+
+    private record Entry(Object value, long bytes) {}
+
+    // an operation and its operand, compared by content. lookups use the operand itself, stored keys hold a copy
+    private static class Key {
+        private final Operation _operation;
+        private final Matrix _matrix;
+        private final int _hash;
+
+        Key(Operation operation, Matrix m){
+            this(operation, m, 31 * operation.hashCode() + m.hashCode());
+        }
+
+        private Key(Operation operation, Matrix m, int hash){
+            _operation = operation;
+            _matrix = m;
+            _hash = hash;
+        }
+
+        Key snapshot(){
+            return new Key(_operation, new Matrix(_matrix), _hash);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key k && _hash == k._hash && _operation == k._operation && _matrix.equals(k._matrix);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hash;
+        }
+    }
+}
@@ -0,0 +1,848 @@
+package logic;
+
+import logic.exceptions.*;
+import logic.metrics.Metrics;
+import logic.metrics.Operation;
+
+public class MatrixCalculations {
+    // the maximal amount of corrections of solveRefined, the error shrinks by the condition number times the
+    // precision in every one so a few are enough unless the matrix is too ill-conditioned to converge at all
+    static final int REFINEMENT_ITERATIONS = 10;
+
+    // a symmetric matrix takes about as many operations to decompose (and multiply back) as this amount of products
+    private static final int EIGEN_PRODUCTS = 6;
+
+    /**
+     * calculate the determinant of a given matrix
+     * @param m represents the matrix operand
+     * @return the result of |m|
+     */
+    @SuppressWarnings("try")
+    public static double det(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        try (Metrics.Timer timer = Metrics.start(Operation.DET, m.getWidth(), m.getHeight(), Metrics.eliminationFlops(m.getWidth(), m.getHeight()))) {
+            return new LUDecomposition(m).det();
+        }
+    }
+
+    /**
+     * calculate the row echelon form of a given matrix
+     * @param m represents the matrix operand
+     * @return the row echelon form of m
+     */
+    @SuppressWarnings("try")
+    public static Matrix rowEchelonForm(Matrix m){
+        try (Metrics.Timer timer = Metrics.start(Operation.ROW_ECHELON_FORM, m.getWidth(), m.getHeight(), Metrics.eliminationFlops(m.getWidth(), m.getHeight()))) {
+            return new LUDecomposition(m).getRowEchelonForm();
+        }
+    }
+
+    /**
+     * operation 1 := multiple * rowToChange
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param multiple represents the multiple of the row
+     * @return the resulting matrix after performed operation 1
+     */
+    public static Matrix elementaryRowOperation1(Matrix m, int rowToChange, double multiple){
+        return elementaryRowOperation1InPlace(new Matrix(m), rowToChange, multiple);
+    }
+
+    /**
+     * operation 1 := multiple * rowToChange, written into a given matrix
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param multiple represents the multiple of the row
+     * @param dst represents the matrix to write the result into, it may be m itself
+     * @return dst, after performed operation 1
+     * @throws IncompatibleDimensionsException in case dst doesn't have the dimensions of m
+     */
+    public static Matrix elementaryRowOperation1(Matrix m, int rowToChange, double multiple, Matrix dst) throws IncompatibleDimensionsException {
+        return elementaryRowOperation1InPlace(copy(m, dst), rowToChange, multiple);
+    }
+
+    /**
+     * operation 1 := multiple * rowToChange, performed on the given matrix itself
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param multiple represents the multiple of the row
+     * @return m, after performed operation 1
+     */
+    public static Matrix elementaryRowOperation1InPlace(Matrix m, int rowToChange, double multiple){
+        double[] data = m.getData();
+        int stride = m.columnStride();
+
+        if (stride == 1)
+            Kernels.get().scale(data, m.rowOffset(rowToChange), multiple, data, m.rowOffset(rowToChange), m.getWidth());
+        else
+            for (int x = 0, i = m.rowOffset(rowToChange); x < m.getWidth(); x++, i += stride)
+                data[i] *= multiple;
+
+        return m;
+    }
+
+    /**
+     * operation 2 := rowToChange + multiple * rowToUse
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param rowToUse represents the row to add (times the multiple) to rowToChange
+     * @param multiple represents the multiple of rowToUse
+     * @return the resulting matrix after performed operation 2
+     */
+    public static Matrix elementaryRowOperation2(Matrix m, int rowToChange, int rowToUse, double multiple){
+        return elementaryRowOperation2InPlace(new Matrix(m), rowToChange, rowToUse, multiple);
+    }
+
+    /**
+     * operation 2 := rowToChange + multiple * rowToUse, written into a given matrix
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param rowToUse represents the row to add (times the multiple) to rowToChange
+     * @param multiple represents the multiple of rowToUse
+     * @param dst represents the matrix to write the result into, it may be m itself
+     * @return dst, after performed operation 2
+     * @throws IncompatibleDimensionsException in case dst doesn't have the dimensions of m
+     */
+    public static Matrix elementaryRowOperation2(Matrix m, int rowToChange, int rowToUse, double multiple, Matrix dst) throws IncompatibleDimensionsException {
+        return elementaryRowOperation2InPlace(copy(m, dst), rowToChange, rowToUse, multiple);
+    }
+
+    /**
+     * operation 2 := rowToChange + multiple * rowToUse, performed on the given matrix itself
+     * @param m represents the matrix to perform the operation on
+     * @param rowToChange represents the row to change (perform the operation on)
+     * @param rowToUse represents the row to add (times the multiple) to rowToChange
+     * @param multiple represents the multiple of rowToUse
+     * @return m, after performed operation 2
+     */
+    public static Matrix elementaryRowOperation2InPlace(Matrix m, int rowToChange, int rowToUse, double multiple){
+        double[] data = m.getData();
+        int stride = m.columnStride();
+
+        if (stride == 1)
+            Kernels.get().axpy(multiple, data, m.rowOffset(rowToUse), data, m.rowOffset(rowToChange), m.getWidth());
+        else
+            for (int x = 0, i = m.rowOffset(rowToChange), j = m.rowOffset(rowToUse); x < m.getWidth(); x++, i += stride, j += stride)
+                data[i] += multiple * data[j];
+
+        return m;
+    }
+
+    /**
+     * operation 3 := r1 <-> r2
+     * @param m represents the matrix to perform the operation on
+     * @param r1 represents the first row to switch
+     * @param r2 represents the first row to switch
+     * @return the resulting matrix after performed operation 3
+     */
+    public static Matrix elementaryRowOperation3(Matrix m, int r1, int r2){
+        return elementaryRowOperation3InPlace(new Matrix(m), r1, r2);
+    }
+
+    /**
+     * operation 3 := r1 <-> r2, written into a given matrix
+     * @param m represents the matrix to perform the operation on
+     * @param r1 represents the first row to switch
+     * @param r2 represents the second row to switch
+     * @param dst represents the matrix to write the result into, it may be m itself
+     * @return dst, after performed operation 3
+     * @throws IncompatibleDimensionsException in case dst doesn't have the dimensions of m
+     */
+    public static Matrix elementaryRowOperation3(Matrix m, int r1, int r2, Matrix dst) throws IncompatibleDimensionsException {
+        return elementaryRowOperation3InPlace(copy(m, dst), r1, r2);
+    }
+
+    /**
+     * operation 3 := r1 <-> r2, performed on the given matrix itself
+     * @param m represents the matrix to perform the operation on
+     * @param r1 represents the first row to switch
+     * @param r2 represents the second row to switch
+     * @return m, after performed operation 3
+     */
+    public static Matrix elementaryRowOperation3InPlace(Matrix m, int r1, int r2){
+        double[] data = m.getData();
+        int stride = m.columnStride();
+
+        for (int x = 0, i = m.rowOffset(r1), j = m.rowOffset(r2); x < m.getWidth(); x++, i += stride, j += stride) {
+            double temp = data[i];
+            data[i] = data[j];
+            data[j] = temp;
+        }
+
+        return m;
+    }
+
+    /**
+     * calculate the reduced row echelon form of a given matrix
+     * @param m represents the matrix operand
+     * @return the reduced row echelon form of m
+     */
+    @SuppressWarnings("try")
+    public static Matrix reducedRowEchelonForm(Matrix m){
+        // the back substitution adds about r^2*w multiply-adds for the rank r
+        long r = Math.min(m.getWidth(), m.getHeight());
+        long flops = Metrics.eliminationFlops(m.getWidth(), m.getHeight()) + r * r * m.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.REDUCED_ROW_ECHELON_FORM, m.getWidth(), m.getHeight(), flops)) {
+            return new LUDecomposition(m).getReducedRowEchelonForm();
+        }
+    }
+
+    /**
+     * calculate the normalized form of a given vector
+     * @param m represents the vector operand
+     * @return the normalized vector |m|
+     * @throws NotAVectorException in case m isn't a vector (height and width are neither 1)
+     */
+    public static Matrix normalize(Matrix m) throws NotAVectorException {
+        Vector v = Vector.of(m);
+        Matrix result = new Matrix(m.getWidth(), m.getHeight());
+        try {
+            VectorCalculations.normalize(v, Vector.of(result));
+        } catch (IncompatibleDimensionsException e) {
+            // the result has the dimensions of m
+            throw new IllegalStateException(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * calculate the result of addition between two matrices
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1+m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    @SuppressWarnings("try")
+    public static Matrix add(Matrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        try (Metrics.Timer timer = Metrics.start(Operation.ADD, m1.getWidth(), m1.getHeight(), (long) m1.getWidth() * m1.getHeight())) {
+            return elementwise(m1, m2, 1);
+        }
+    }
+
+    /**
+     * calculate the result of subtraction between two matrices
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1-m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    @SuppressWarnings("try")
+    public static Matrix sub(Matrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        try (Metrics.Timer timer = Metrics.start(Operation.SUB, m1.getWidth(), m1.getHeight(), (long) m1.getWidth() * m1.getHeight())) {
+            return elementwise(m1, m2, -1);
+        }
+    }
+
+    /**
+     * calculate the result of addition between two matrices, written into a given matrix
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @param dst represents the matrix to write the result into, it may be m1 or m2 themselves
+     * @return dst, holding the result of m1+m2
+     * @throws IncompatibleDimensionsException in case the operands and dst don't have the same dimensions
+     */
+    public static Matrix add(Matrix m1, Matrix m2, Matrix dst) throws IncompatibleDimensionsException {
+        return elementwise(m1, m2, 1, dst);
+    }
+
+    /**
+     * calculate the result of subtraction between two matrices, written into a given matrix
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @param dst represents the matrix to write the result into, it may be m1 or m2 themselves
+     * @return dst, holding the result of m1-m2
+     * @throws IncompatibleDimensionsException in case the operands and dst don't have the same dimensions
+     */
+    public static Matrix sub(Matrix m1, Matrix m2, Matrix dst) throws IncompatibleDimensionsException {
+        return elementwise(m1, m2, -1, dst);
+    }
+
+    /**
+     * add a matrix to another matrix, m1 := m1+m2
+     * @param m1 represents the matrix to change
+     * @param m2 represents the matrix to add
+     * @return m1, holding the result of m1+m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static Matrix addInPlace(Matrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        return elementwise(m1, m2, 1, m1);
+    }
+
+    /**
+     * subtract a matrix from another matrix, m1 := m1-m2
+     * @param m1 represents the matrix to change
+     * @param m2 represents the matrix to subtract
+     * @return m1, holding the result of m1-m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static Matrix subInPlace(Matrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        return elementwise(m1, m2, -1, m1);
+    }
+
+    // calculate m1 + sign * m2 in a single pass over the backing arrays
+    private static Matrix elementwise(Matrix m1, Matrix m2, double sign) throws IncompatibleDimensionsException {
+        requireDimensions(m2, m1.getWidth(), m1.getHeight());
+        if (m2.getLayout() != m1.getLayout())
+            m2 = new Matrix(m2, m1.getLayout());
+
+        Matrix m = new Matrix(m1.getWidth(), m1.getHeight(), true, m1.getLayout());
+        Kernels.get().add(m1.getData(), m2.getData(), sign, m.getData(), m.getData().length);
+
+        return m;
+    }
+
+    // calculate m1 + sign * m2 into dst. every value is read and written at the same position, so dst may alias an operand
+    private static Matrix elementwise(Matrix m1, Matrix m2, double sign, Matrix dst) throws IncompatibleDimensionsException {
+        requireDimensions(m2, m1.getWidth(), m1.getHeight());
+        requireDimensions(dst, m1.getWidth(), m1.getHeight());
+
+        double[] a = m1.getData(), b = m2.getData(), c = dst.getData();
+        if (m1.getLayout() == dst.getLayout() && m2.getLayout() == dst.getLayout()) {
+            Kernels.get().add(a, b, sign, c, c.length);
+        } else {
+            for (int y = 0; y < dst.getHeight(); y++)
+                for (int x = 0; x < dst.getWidth(); x++)
+                    c[dst.index(x, y)] = a[m1.index(x, y)] + sign * b[m2.index(x, y)];
+        }
+
+        return dst;
+    }
+
+    // copy the values of m into dst (nothing to do when dst is m), for the operations that then change dst in place
+    private static Matrix copy(Matrix m, Matrix dst) throws IncompatibleDimensionsException {
+        requireDimensions(dst, m.getWidth(), m.getHeight());
+        if (dst == m)
+            return dst;
+
+        if (m.getLayout() == dst.getLayout()) {
+            System.arraycopy(m.getData(), 0, dst.getData(), 0, m.getData().length);
+        } else {
+            double[] a = m.getData(), c = dst.getData();
+            for (int y = 0; y < m.getHeight(); y++)
+                for (int x = 0; x < m.getWidth(); x++)
+                    c[dst.index(x, y)] = a[m.index(x, y)];
+        }
+        dst.setExtraValue(m.getExtraValue());
+
+        return dst;
+    }
+
+    private static void requireDimensions(Matrix m, int width, int height) throws IncompatibleDimensionsException {
+        if (m.getWidth() != width || m.getHeight() != height)
+            throw new IncompatibleDimensionsException();
+    }
+
+    /**
+     * calculate the inverted matrix of m, meaning the matrix p such that mp = pm = I
+     * @param m represents the matrix operand
+     * @return the result of m^-1
+     * @throws NonSquareMatrixException in case the matrix isn't squared and therefore non-invertible
+     * @throws NonInvertibleMatrixException in case the matrix is squared but is non-invertible (|m| = 0)
+     */
+    @SuppressWarnings("try")
+    public static Matrix invert(Matrix m) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        // the elimination and 2n^3 for the substitutions of the n columns of I
+        long n = m.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.INVERT, m.getWidth(), m.getHeight(), Metrics.eliminationFlops(m.getWidth(), m.getHeight()) + 2 * n * n * n)) {
+            return new LUDecomposition(m).inverse();
+        }
+    }
+
+    /**
+     * calculate the adjoint (adjugate) matrix of m, meaning the matrix adj(m) such that m*adj(m) = |m|*I.
+     * for an invertible m it is derived from the inverse as |m|*m^-1, for a matrix of rank n-1 it is the
+     * rank one matrix c*v*u^t built from the null vectors of m and m^t (scaled by a single cofactor),
+     * and for a lower rank it is zero
+     * @param m represents the matrix operand
+     * @return the result of adj(m)
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    @SuppressWarnings("try")
+    public static Matrix adjoint(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        long n = m.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.ADJOINT, m.getWidth(), m.getHeight(), Metrics.eliminationFlops(m.getWidth(), m.getHeight()) + 2 * n * n * n)) {
+            return adjoint(m, new LUDecomposition(m));
+        }
+    }
+
+    // the adjoint of a squared matrix m, given its LU decomposition
+    static Matrix adjoint(Matrix m, LUDecomposition lu) throws NonSquareMatrixException {
+        int n = m.getWidth();
+
+        try {
+            return multiply(lu.inverse(), lu.det());
+        } catch (NonInvertibleMatrixException e) {
+            // m is singular, continue with the rank deficient cases
+        }
+
+        Matrix result = new Matrix(n, n);
+        if (lu.getRank() < n - 1)
+            return result;
+        if (n == 1) {
+            result.set(0, 0, 1);
+            return result;
+        }
+
+        // every column of adj(m) is in the null space of m and every row is in the null space of m^t
+        double[] v = nullVector(lu.getReducedRowEchelonForm());
+        double[] u = nullVector(reducedRowEchelonForm(transpose(m)));
+
+        int i = indexOfMax(v);
+        int j = indexOfMax(u);
+        double c = Math.pow(-1, i + j) * MatrixCalculations.minor(m, i, j) / (v[i] * u[j]);
+
+        for (int x = 0; x < n; x++)
+            for (int y = 0; y < n; y++)
+                result.set(x, y, c * v[y] * u[x]);
+
+        return result;
+    }
+
+    /**
+     * solve the set of linear equations m*X = b without forming the inverse of m
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side, every column of it is a separate set of equations
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the coefficients matrix is singular (no unique solution)
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    @SuppressWarnings("try")
+    public static Matrix solve(Matrix m, Matrix b) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        // the elimination and 2n^2 for the substitutions of every column of b
+        long flops = Metrics.eliminationFlops(m.getWidth(), m.getHeight()) + 2L * m.getHeight() * m.getHeight() * b.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.SOLVE, m.getWidth(), m.getHeight(), flops)) {
+            return new LUDecomposition(m).solve(b);
+        }
+    }
+
+    /**
+     * solve the set of linear equations m*X = b of a symmetric positive definite m by its cholesky decomposition,
+     * about half the operations of solve. only the lower triangle of m is read
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side, every column of it is a separate set of equations
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NotPositiveDefiniteMatrixException in case the coefficients matrix isn't positive definite
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    @SuppressWarnings("try")
+    public static Matrix solvePositiveDefinite(Matrix m, Matrix b) throws NonSquareMatrixException, NotPositiveDefiniteMatrixException, IncompatibleDimensionsException {
+        // n^3/3 for the factorization and 2n^2 for the substitutions of every column of b
+        long n = m.getHeight();
+        long flops = n * n * n / 3 + 2 * n * n * b.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.SOLVE_POSITIVE_DEFINITE, m.getWidth(), m.getHeight(), flops)) {
+            return new CholeskyDecomposition(m).solve(b);
+        }
+    }
+
+    /**
+     * solve the least squares problem of m*X = b, the X that minimizes the 2-norm of every column of m*X - b, by
+     * householder QR with column pivoting (for overdetermined systems, such as regressions). for a rank deficient m
+     * (or fewer equations than unknowns) the basic solution is returned, see QRDecomposition.solve
+     * @param m represents the coefficients matrix, of any dimensions
+     * @param b represents the right hand side, every column of it is a separate problem
+     * @return the least squares solution X, of the width of m and the width of b
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    @SuppressWarnings("try")
+    public static Matrix lstsq(Matrix m, Matrix b) throws IncompatibleDimensionsException {
+        if (b.getHeight() != m.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        // 2*h*w^2 - 2w^3/3 for the factorization and 4*h*w for every column of b
+        long h = m.getHeight(), w = Math.min(m.getWidth(), m.getHeight());
+        long flops = 2 * h * w * w - 2 * w * w * w / 3 + 4 * h * w * b.getWidth();
+        try (Metrics.Timer timer = Metrics.start(Operation.LSTSQ, m.getWidth(), m.getHeight(), flops)) {
+            return new QRDecomposition(m).solve(b);
+        }
+    }
+
+    /**
+     * solve the set of linear equations m*X = b and improve the solution by iterative refinement with compensated
+     * residuals, for ill-conditioned coefficients where a single solve loses too many digits
+     * @param m represents the coefficients matrix
+     * @param b represents the right hand side, every column of it is a separate set of equations
+     * @return the matrix X such that m*X = b
+     * @throws NonSquareMatrixException in case the coefficients matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the coefficients matrix is singular (no unique solution)
+     * @throws IncompatibleDimensionsException in case b doesn't have the same height as m
+     */
+    public static Matrix solveRefined(Matrix m, Matrix b) throws NonSquareMatrixException, NonInvertibleMatrixException, IncompatibleDimensionsException {
+        return new LUDecomposition(m).solveRefined(m, b, REFINEMENT_ITERATIONS);
+    }
+
+    /**
+     * calculate the rank of a given matrix by gaussian elimination with full pivoting, the entries below
+     * max(height, width) * ulp of the largest entry are treated as zero
+     * @param m represents the matrix operand
+     * @return the amount of linearly independent rows (or columns) of m
+     */
+    public static int rank(Matrix m){
+        return new LUDecomposition(m, LUDecomposition.Pivoting.FULL).getRank();
+    }
+
+    /**
+     * calculate the rank of a given matrix by gaussian elimination with full pivoting
+     * @param m represents the matrix operand
+     * @param tolerance represents the absolute value at or below which a pivot is treated as zero
+     * @return the amount of linearly independent rows (or columns) of m
+     */
+    public static int rank(Matrix m, double tolerance){
+        return new LUDecomposition(m, LUDecomposition.Pivoting.FULL, tolerance).getRank();
+    }
+
+    /**
+     * estimate the condition number of a given matrix in the 1-norm, |m|*|m^-1|. the solution of m*X = b
+     * loses about log10 of it decimal digits
+     * @param m represents the matrix operand
+     * @return the estimated condition number, infinity for a singular matrix
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public static double conditionNumber(Matrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        return new LUDecomposition(m).conditionNumber();
+    }
+
+    /**
+     * calculate a nonzero vector v such that m*v = 0, for a squared matrix of rank n-1
+     * @param rref represents the reduced row echelon form of the matrix operand
+     * @return the values of v
+     */
+    private static double[] nullVector(Matrix rref){
+        int n = rref.getWidth();
+        double[] result = new double[n];
+
+        // find the column without a leading one, it is the free variable of the null space
+        int free = n - 1;
+        for (int row = 0, col = 0; col < n; col++) {
+            if (row < n && rref.get(col, row) != 0) {
+                row++;
+            } else {
+                free = col;
+                break;
+            }
+        }
+
+        result[free] = 1;
+        for (int row = 0, col = 0; col < n; col++) {
+            if (col == free)
+                continue;
+            result[col] = -rref.get(free, row++);
+        }
+
+        return result;
+    }
+
+    private static int indexOfMax(double[] v){
+        int result = 0;
+        for (int i = 1; i < v.length; i++)
+            if (Math.abs(v[i]) > Math.abs(v[result]))
+                result = i;
+        return result;
+    }
+
+    /**
+     * calculate the determinant of a minor in coordinate (x,y)
+     * @param m represents the matrix operand
+     * @param x represents the x coordinate
+     * @param y represents the y coordinate
+     * @return the determinant of the minor (x,y)
+     * @throws NonSquareMatrixException in case the matrix is not squared and therefore cannot be minored
+     */
+    private static double minor(Matrix m, int x, int y) throws NonSquareMatrixException{
+        Matrix result = new Matrix(m.getWidth() - 1, m.getHeight() - 1);
+
+        int offsetX = 0;
+        for (int i = 0; i < m.getWidth(); i++) {
+            int offsetY = 0;
+            if (i != x) {
+                for (int j = 0; j < m.getHeight(); j++) {
+                    if (j != y){
+                        result.set(i - offsetX, j - offsetY, m.get(i, j));
+                    } else offsetY = 1;
+                }
+            } else offsetX = 1;
+        }
+
+        return MatrixCalculations.det(result);
+    }
+
+    /**
+     * calculate the transposed matrix of a given matrix
+     * @param m represents the matrix operand
+     * @return the result of m^t
+     */
+    @SuppressWarnings("try")
+    public static Matrix transpose(Matrix m) {
+        // the rows of m are the columns of m^t, so the same values read in the opposite layout are m^t
+        Matrix.Layout layout = m.getLayout() == Matrix.Layout.ROW_MAJOR ? Matrix.Layout.COLUMN_MAJOR : Matrix.Layout.ROW_MAJOR;
+        try (Metrics.Timer timer = Metrics.start(Operation.TRANSPOSE, m.getWidth(), m.getHeight(), 0)) {
+            return new Matrix(m.getHeight(), m.getWidth(), layout, m.getData().clone());
+        }
+    }
+
+    /**
+     * calculate the transposed matrix of a given matrix, written into a given matrix
+     * @param m represents the matrix operand
+     * @param dst represents the matrix to write the result into, it may be m itself if m is squared
+     * @return dst, holding the result of m^t
+     * @throws IncompatibleDimensionsException in case the width of dst isn't the height of m or the other way around
+     */
+    public static Matrix transpose(Matrix m, Matrix dst) throws IncompatibleDimensionsException {
+        requireDimensions(dst, m.getHeight(), m.getWidth());
+
+        double[] a = m.getData(), c = dst.getData();
+        if (dst == m) {
+            // swap the values across the diagonal
+            for (int y = 0; y < m.getHeight(); y++)
+                for (int x = y + 1; x < m.getWidth(); x++) {
+                    int i = m.index(x, y), j = m.index(y, x);
+                    double temp = a[i];
+                    a[i] = a[j];
+                    a[j] = temp;
+                }
+        } else if (dst.getLayout() != m.getLayout()) {
+            // the same values read in the opposite layout are m^t
+            System.arraycopy(a, 0, c, 0, a.length);
+        } else {
+            for (int y = 0; y < m.getHeight(); y++)
+                for (int x = 0; x < m.getWidth(); x++)
+                    c[dst.index(y, x)] = a[m.index(x, y)];
+        }
+
+        return dst;
+    }
+
+    /**
+     * Calculate the multiplication of a given matrix with a scalar
+     * @param m represents the matrix operand
+     * @param scalar represents the scalar operand
+     * @return the result of c*m
+     */
+    @SuppressWarnings("try")
+    public static Matrix multiply(Matrix m, double scalar){
+        try (Metrics.Timer timer = Metrics.start(Operation.MULTIPLY_SCALAR, m.getWidth(), m.getHeight(), (long) m.getWidth() * m.getHeight())) {
+            Matrix result = new Matrix(m.getWidth(), m.getHeight(), true, m.getLayout());
+            Kernels.get().scale(m.getData(), 0, scalar, result.getData(), 0, result.getData().length);
+
+            return result;
+        }
+    }
+
+    /**
+     * calculate the multiplication of a given matrix with a scalar, written into a given matrix
+     * @param m represents the matrix operand
+     * @param scalar represents the scalar operand
+     * @param dst represents the matrix to write the result into, it may be m itself
+     * @return dst, holding the result of c*m
+     * @throws IncompatibleDimensionsException in case dst doesn't have the dimensions of m
+     */
+    public static Matrix multiply(Matrix m, double scalar, Matrix dst) throws IncompatibleDimensionsException {
+        requireDimensions(dst, m.getWidth(), m.getHeight());
+
+        double[] a = m.getData(), c = dst.getData();
+        if (m.getLayout() == dst.getLayout()) {
+            Kernels.get().scale(a, 0, scalar, c, 0, c.length);
+        } else {
+            for (int y = 0; y < m.getHeight(); y++)
+                for (int x = 0; x < m.getWidth(); x++)
+                    c[dst.index(x, y)] = a[m.index(x, y)] * scalar;
+        }
+
+        return dst;
+    }
+
+    /**
+     * multiply a matrix by a scalar, m := c*m
+     * @param m represents the matrix to change
+     * @param scalar represents the scalar operand
+     * @return m, holding the result of c*m
+     */
+    public static Matrix scaleInPlace(Matrix m, double scalar){
+        double[] data = m.getData();
+        Kernels.get().scale(data, 0, scalar, data, 0, data.length);
+
+        return m;
+    }
+
+    /**
+     * calculate the result of multiplication between two matrices
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1*m2
+     */
+    @SuppressWarnings("try")
+    public static Matrix multiply(Matrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        try (Metrics.Timer timer = Metrics.start(Operation.MULTIPLY, m1.getWidth(), m1.getHeight(), 2L * m1.getHeight() * m1.getWidth() * m2.getWidth())) {
+            return BlockedMultiplication.multiply(m1, m2);
+        }
+    }
+
+    /**
+     * calculate the power of a squared matrix by binary exponentiation (repeated squaring), O(n^3 log k) operations
+     * on four buffers that are reused by all the products. a diagonal matrix is raised entry by entry, and a
+     * symmetric matrix with a non integer entry that would take more than EIGEN_PRODUCTS products is raised through
+     * its eigen decomposition, m^k = V*D^k*V^t, whose eigenvectors are orthonormal (the eigenvectors of other
+     * matrices may be too close to dependent for P*D^k*P^-1 to be accurate, and the powers of integer matrices are
+     * exact by squaring while they fit in a double, so they are always squared)
+     * @param m represents the matrix operand
+     * @param k represents the exponent, a negative exponent raises the inverse of m
+     * @return the result of m^k, the identity for k = 0
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the exponent is negative and the matrix is singular
+     */
+    @SuppressWarnings("try")
+    public static Matrix power(Matrix m, long k) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+        if (k < 0) {
+            if (k == Long.MIN_VALUE)
+                throw new ArithmeticException("the exponent is out of range");
+            return power(invert(m), -k);
+        }
+
+        int n = m.getWidth();
+        long e = Math.max(1, k);
+        int products = 63 - Long.numberOfLeadingZeros(e) + Long.bitCount(e) - 1;
+        try (Metrics.Timer timer = Metrics.start(Operation.POWER, n, n, 2L * n * n * n * products)) {
+            if (k == 0) {
+                Matrix result = new Matrix(n, n);
+                for (int i = 0; i < n; i++)
+                    result.set(i, i, 1);
+                return result;
+            }
+            if (isDiagonal(m)) {
+                Matrix result = new Matrix(n, n);
+                for (int i = 0; i < n; i++)
+                    result.set(i, i, power(m.get(i, i), k));
+                return result;
+            }
+            // the symmetry is checked first, so the other matrices don't pay for a decomposition they can't use.
+            // the powers of integer matrices are exact by squaring as long as they fit in a double, so they are
+            // never rounded by the eigenvalues
+            if (products > EIGEN_PRODUCTS && isSymmetric(m) && !isIntegral(m))
+                return symmetricPower(new EigenDecomposition(m), k);
+            return squaringPower(m, k);
+        }
+    }
+
+    private static boolean isDiagonal(Matrix m){
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < m.getWidth(); x++)
+                if (x != y && m.get(x, y) != 0)
+                    return false;
+        return true;
+    }
+
+    private static boolean isSymmetric(Matrix m){
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < y; x++)
+                if (m.get(x, y) != m.get(y, x))
+                    return false;
+        return true;
+    }
+
+    private static boolean isIntegral(Matrix m){
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < m.getWidth(); x++) {
+                double val = m.get(x, y);
+                if (val != Math.rint(val))
+                    return false;
+            }
+        return true;
+    }
+
+    // x^k, with the sign from the parity of k since Math.pow rounds a long exponent above 2^53 to an even double
+    private static double power(double x, long k){
+        double abs = Math.pow(Math.abs(x), k);
+        return x < 0 && (k & 1) != 0 ? -abs : abs;
+    }
+
+    // V*D^k*V^t of a symmetric matrix
+    private static Matrix symmetricPower(EigenDecomposition eigen, long k) throws NonSquareMatrixException {
+        try {
+            Matrix v = eigen.getP();
+            double[] d = eigen.getRealEigenvalues();
+            int n = d.length;
+            Matrix vd = new Matrix(n, n);
+            for (int y = 0; y < n; y++)
+                for (int x = 0; x < n; x++)
+                    vd.set(x, y, v.get(x, y) * power(d[x], k));
+            return BlockedMultiplication.multiply(vd, transpose(v));
+        } catch (NonDiagonalizableMatrixException e) {
+            // every symmetric matrix is diagonalizable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // binary exponentiation from the lowest bit of k: the result is multiplied by the squares of m of the set bits
+    private static Matrix squaringPower(Matrix m, long k){
+        int n = m.getWidth();
+        Matrix base = new Matrix(m, Matrix.Layout.ROW_MAJOR), baseT = new Matrix(m, Matrix.Layout.COLUMN_MAJOR);
+        Matrix result = null, temp = new Matrix(n, n);
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(64 - Long.numberOfLeadingZeros(k));
+
+        while (true) {
+            if ((k & 1) != 0) {
+                if (result == null) {
+                    result = new Matrix(base);
+                } else {
+                    BlockedMultiplication.multiply(result, base, baseT, temp);
+                    Matrix swap = result;
+                    result = temp;
+                    temp = swap;
+                }
+            }
+            k >>>= 1;
+            if (job != null)
+                job.advance(1);
+            if (k == 0)
+                return result;
+
+            BlockedMultiplication.multiply(base, base, baseT, temp);
+            Matrix swap = base;
+            base = temp;
+            temp = swap;
+            copyTransposed(base, baseT);
+        }
+    }
+
+    // copy a row major matrix into a column major matrix of the same dimensions
+    private static void copyTransposed(Matrix rowMajor, Matrix columnMajor){
+        double[] source = rowMajor.getData(), target = columnMajor.getData();
+        int width = rowMajor.getWidth(), height = rowMajor.getHeight();
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                target[x * height + y] = source[y * width + x];
+    }
+
+    /**
+     * calculates the similar diagonal matrix of m
+     * @param m represents the matrix operand
+     * @return the diagonal matrix d of the eigenvalues of m, such that exists an invertible matrix p
+     * (the eigenvectors, see EigenDecomposition) that satisfies m = p*d*p^-1
+     * @throws NonSquareMatrixException in case the matrix isn't squared and therefore indiagonalizable
+     * @throws NonDiagonalizableMatrixException in case the matrix is squared but indiagonalizable (רא != רג),
+     * or has complex eigenvalues
+     */
+    public static Matrix diagonalize(Matrix m) throws NonSquareMatrixException, NonDiagonalizableMatrixException {
+        return new EigenDecomposition(m).getD();
+    }
+}
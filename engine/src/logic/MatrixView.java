@@ -0,0 +1,36 @@
+package logic;
+
+/**
+ * a read only view of the values of a matrix, regardless of how they are stored
+ */
+public interface MatrixView {
+
+    int getWidth();
+
+    int getHeight();
+
+    double get(int x, int y);
+
+    /**
+     * @return the amount of values that are not zero
+     */
+    default long countNonZeros(){
+        long result = 0;
+        for (int y = 0; y < getHeight(); y++)
+            for (int x = 0; x < getWidth(); x++)
+                if (get(x, y) != 0)
+                    result++;
+        return result;
+    }
+
+    /**
+     * @return a new dense matrix holding the same values
+     */
+    default Matrix toMatrix(){
+        Matrix result = new Matrix(getWidth(), getHeight());
+        for (int y = 0; y < getHeight(); y++)
+            for (int x = 0; x < getWidth(); x++)
+                result.set(x, y, get(x, y));
+        return result;
+    }
+}
@@ -0,0 +1,261 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+import java.util.Arrays;
+
+/**
+ * exact operations on matrices over GF(p) (see ModularMatrix), e.g. for the Hill cipher or lattice reductions.
+ * the elimination works on rows of residues in Montgomery form (see Montgomery), so no step divides by p,
+ * and every nonzero entry is a valid pivot since every nonzero residue of a prime is invertible
+ */
+public class ModularCalculations {
+
+    /**
+     * calculate the determinant of a given matrix over GF(p)
+     * @param m represents the matrix operand
+     * @return the result of |m|, in [0, p)
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public static long det(ModularMatrix m) throws NonSquareMatrixException {
+        if (m.getWidth() != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        Montgomery arithmetic = new Montgomery(m.getModulus());
+        long[] det = new long[1];
+        eliminate(arithmetic, rows(m, arithmetic, m.getWidth()), m.getWidth(), false, det);
+        return arithmetic.fromForm(det[0]);
+    }
+
+    /**
+     * calculate the rank of a given matrix over GF(p)
+     * @param m represents the matrix operand
+     * @return the amount of linearly independent rows of m
+     */
+    public static int rank(ModularMatrix m){
+        Montgomery arithmetic = new Montgomery(m.getModulus());
+        return eliminate(arithmetic, rows(m, arithmetic, m.getWidth()), m.getWidth(), false, null);
+    }
+
+    /**
+     * calculate the row echelon form (with leading ones) of a given matrix over GF(p)
+     * @param m represents the matrix operand
+     * @return the row echelon form of m
+     */
+    public static ModularMatrix rowEchelonForm(ModularMatrix m){
+        return echelonForm(m, false);
+    }
+
+    /**
+     * calculate the reduced row echelon form of a given matrix over GF(p)
+     * @param m represents the matrix operand
+     * @return the reduced row echelon form of m
+     */
+    public static ModularMatrix reducedRowEchelonForm(ModularMatrix m){
+        return echelonForm(m, true);
+    }
+
+    /**
+     * calculate the inverted matrix of m over GF(p), by reducing [m | I] to [I | m^-1]
+     * @param m represents the matrix operand
+     * @return the result of m^-1
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case |m| = 0 (mod p)
+     */
+    public static ModularMatrix invert(ModularMatrix m) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        int n = m.getWidth();
+        if (n != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        Montgomery arithmetic = new Montgomery(m.getModulus());
+        long[][] rows = rows(m, arithmetic, 2 * n);
+        long one = arithmetic.toForm(1);
+        for (int y = 0; y < n; y++)
+            rows[y][n + y] = one;
+
+        if (eliminate(arithmetic, rows, n, true, null) < n)
+            throw new NonInvertibleMatrixException();
+
+        ModularMatrix result = new ModularMatrix(n, n, m.getModulus());
+        long[] data = result.getData();
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < n; x++)
+                data[y * n + x] = arithmetic.fromForm(rows[y][n + x]);
+        return result;
+    }
+
+    /**
+     * calculate the product of two matrices over GF(p)
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1*m2
+     * @throws IncompatibleDimensionsException in case the width of m1 isn't the height of m2
+     */
+    public static ModularMatrix multiply(ModularMatrix m1, ModularMatrix m2) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+        if (m1.getModulus() != m2.getModulus())
+            throw new IllegalArgumentException("the matrices are over different fields");
+
+        Montgomery arithmetic = new Montgomery(m1.getModulus());
+        int width = m2.getWidth(), height = m1.getHeight(), n = m1.getWidth();
+        long[][] b = rows(m2, arithmetic, width);
+        long[] a = m1.getData();
+
+        // a plain residue times a Montgomery form is the plain residue of the product
+        ModularMatrix result = new ModularMatrix(width, height, m1.getModulus());
+        long[] c = result.getData();
+        for (int y = 0; y < height; y++)
+            for (int k = 0; k < n; k++) {
+                long multiple = a[y * n + k];
+                if (multiple == 0)
+                    continue;
+                long[] row = b[k];
+                for (int x = 0, i = y * width; x < width; x++, i++)
+                    c[i] = arithmetic.add(c[i], arithmetic.multiply(multiple, row[x]));
+            }
+        return result;
+    }
+
+    /**
+     * calculate the power of a squared matrix over GF(p) by binary exponentiation (repeated squaring), O(n^3 log k)
+     * operations on three buffers of residues in Montgomery form that are reused by all the products, e.g. for
+     * linear recurrences with huge indices
+     * @param m represents the matrix operand
+     * @param k represents the exponent, a negative exponent raises the inverse of m
+     * @return the result of m^k, the identity for k = 0
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case the exponent is negative and |m| = 0 (mod p)
+     */
+    public static ModularMatrix power(ModularMatrix m, long k) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        int n = m.getWidth();
+        if (n != m.getHeight())
+            throw new NonSquareMatrixException();
+        if (k < 0) {
+            if (k == Long.MIN_VALUE)
+                throw new ArithmeticException("the exponent is out of range");
+            return power(invert(m), -k);
+        }
+
+        Montgomery arithmetic = new Montgomery(m.getModulus());
+        long[][] base = rows(m, arithmetic, n), result = new long[n][n], temp = new long[n][n];
+        long one = arithmetic.toForm(1);
+        for (int y = 0; y < n; y++)
+            result[y][y] = one;
+
+        // the products are in Montgomery form as well, so the residues are converted only once
+        for (; k != 0; k >>>= 1) {
+            if ((k & 1) != 0) {
+                multiply(arithmetic, result, base, temp);
+                long[][] swap = result;
+                result = temp;
+                temp = swap;
+            }
+            if (k > 1) {
+                multiply(arithmetic, base, base, temp);
+                long[][] swap = base;
+                base = temp;
+                temp = swap;
+            }
+        }
+
+        ModularMatrix power = new ModularMatrix(n, n, m.getModulus());
+        long[] data = power.getData();
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < n; x++)
+                data[y * n + x] = arithmetic.fromForm(result[y][x]);
+        return power;
+    }
+
+    // c := a*b of squared rows in Montgomery form, c isn't an operand
+    private static void multiply(Montgomery arithmetic, long[][] a, long[][] b, long[][] c){
+        for (int y = 0; y < c.length; y++) {
+            long[] row = c[y];
+            Arrays.fill(row, 0);
+            for (int k = 0; k < b.length; k++) {
+                long multiple = a[y][k];
+                if (multiple == 0)
+                    continue;
+                long[] other = b[k];
+                for (int x = 0; x < row.length; x++)
+                    row[x] = arithmetic.add(row[x], arithmetic.multiply(multiple, other[x]));
+            }
+        }
+    }
+
+    private static ModularMatrix echelonForm(ModularMatrix m, boolean reduced){
+        Montgomery arithmetic = new Montgomery(m.getModulus());
+        int width = m.getWidth();
+        long[][] rows = rows(m, arithmetic, width);
+        eliminate(arithmetic, rows, width, reduced, null);
+
+        ModularMatrix result = new ModularMatrix(width, m.getHeight(), m.getModulus());
+        long[] data = result.getData();
+        for (int y = 0; y < rows.length; y++)
+            for (int x = 0; x < width; x++)
+                data[y * width + x] = arithmetic.fromForm(rows[y][x]);
+        return result;
+    }
+
+    // the rows of m in Montgomery form, padded with zeros to the given width
+    private static long[][] rows(ModularMatrix m, Montgomery arithmetic, int width){
+        long[] data = m.getData();
+        long[][] rows = new long[m.getHeight()][width];
+        for (int y = 0; y < rows.length; y++)
+            for (int x = 0; x < m.getWidth(); x++)
+                rows[y][x] = arithmetic.toForm(data[y * m.getWidth() + x]);
+        return rows;
+    }
+
+    /**
+     * gaussian elimination of rows in Montgomery form in place, every pivot is scaled to a leading one
+     * @param cols represents the amount of columns to look for pivots in (the rest of the columns only follow)
+     * @param reduced represents whether the entries above the pivots are erased as well
+     * @param det represents an array for the determinant (the product of the pivots times the permutation sign,
+     *            in Montgomery form), it may be null
+     * @return the rank of the first cols columns
+     */
+    private static int eliminate(Montgomery arithmetic, long[][] rows, int cols, boolean reduced, long[] det){
+        long product = arithmetic.toForm(1);
+        int row = 0;
+        for (int col = 0; col < cols && row < rows.length; col++) {
+            // every nonzero residue is invertible, so the first one is a pivot
+            int p = row;
+            while (p < rows.length && rows[p][col] == 0)
+                p++;
+            if (p == rows.length)
+                continue;
+
+            if (p != row) {
+                long[] temp = rows[p];
+                rows[p] = rows[row];
+                rows[row] = temp;
+                product = arithmetic.subtract(0, product);
+            }
+
+            long[] pivotRow = rows[row];
+            long pivot = pivotRow[col];
+            product = arithmetic.multiply(product, pivot);
+            long inverse = arithmetic.inverse(pivot);
+            for (int j = col; j < pivotRow.length; j++)
+                pivotRow[j] = arithmetic.multiply(pivotRow[j], inverse);
+
+            for (int i = reduced ? 0 : row + 1; i < rows.length; i++) {
+                long[] r = rows[i];
+                long multiple = r[col];
+                if (i == row || multiple == 0)
+                    continue;
+                for (int j = col; j < r.length; j++)
+                    r[j] = arithmetic.subtract(r[j], arithmetic.multiply(multiple, pivotRow[j]));
+            }
+
+            row++;
+        }
+
+        if (det != null)
+            det[0] = row == rows.length ? product : 0;
+        return row;
+    }
+}
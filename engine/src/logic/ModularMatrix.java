@@ -0,0 +1,114 @@
+package logic;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * a matrix over the finite field GF(p) of the integers modulo a prime p, with its residues in [0, p) stored as
+ * primitive longs in row-major order. the operations on it are exact, see ModularCalculations
+ */
+public class ModularMatrix {
+    private final long[] _values;
+    private final int _width;
+    private final int _height;
+    private final long _modulus;
+
+    /**
+     * create a zero matrix
+     * @param width represents the amount of columns
+     * @param height represents the amount of rows
+     * @param modulus represents the prime p, 2 <= p < 2^62
+     */
+    public ModularMatrix(int width, int height, long modulus){
+        if (modulus < 2 || modulus >= 1L << 62 || !BigInteger.valueOf(modulus).isProbablePrime(64))
+            throw new IllegalArgumentException("the modulus must be a prime below 2^62, not " + modulus);
+
+        _width = width;
+        _height = height;
+        _modulus = modulus;
+        _values = new long[Math.multiplyExact(width, height)];
+    }
+
+    /**
+     * reduce the values of a matrix of integers modulo a prime
+     * @param m represents a matrix of integral values
+     * @param modulus represents the prime p, 2 <= p < 2^62
+     * @return a matrix of the residues of the values of m
+     * @throws ArithmeticException in case a value of m isn't an integer in the range of a long
+     */
+    public static ModularMatrix of(Matrix m, long modulus){
+        ModularMatrix result = new ModularMatrix(m.getWidth(), m.getHeight(), modulus);
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < m.getWidth(); x++) {
+                double val = m.get(x, y);
+                if (val != Math.rint(val) || Math.abs(val) >= 0x1p63)
+                    throw new ArithmeticException(val + " isn't an integer");
+                result.set(x, y, (long) val);
+            }
+        return result;
+    }
+
+    public int getWidth(){
+        return _width;
+    }
+
+    public int getHeight(){
+        return _height;
+    }
+
+    public long getModulus(){
+        return _modulus;
+    }
+
+    /**
+     * @return the residue at (x, y), in [0, p)
+     */
+    public long get(int x, int y){
+        return _values[y * _width + x];
+    }
+
+    /**
+     * @param val represents any integer, it is stored as its residue in [0, p)
+     */
+    public void set(int x, int y, long val){
+        _values[y * _width + x] = Math.floorMod(val, _modulus);
+    }
+
+    /**
+     * @return a matrix of the residues as doubles (exact for residues below 2^53)
+     */
+    public Matrix toMatrix(){
+        Matrix result = new Matrix(_width, _height);
+        for (int y = 0; y < _height; y++)
+            for (int x = 0; x < _width; x++)
+                result.set(x, y, get(x, y));
+        return result;
+    }
+
+    // the backing array, the residue (x, y) at y * width + x
+    long[] getData(){
+        return _values;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ModularMatrix m && _width == m._width && _height == m._height
+                && _modulus == m._modulus && Arrays.equals(_values, m._values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(_modulus) + _width) + Arrays.hashCode(_values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int y = 0; y < _height; y++) {
+            for (int x = 0; x < _width; x++)
+                result.append(x == 0 ? "" : " ").append(get(x, y));
+            result.append('\n');
+        }
+        return result.append("(mod ").append(_modulus).append(')').toString();
+    }
+}
@@ -0,0 +1,101 @@
+package logic;
+
+import java.math.BigInteger;
+
+/**
+ * the arithmetic of the integers modulo a prime p < 2^62 in Montgomery form: a residue a is kept as a*2^64 mod p,
+ * so a product is reduced with two multiplications and a shift instead of a division. the modulus 2 (the only even
+ * prime) has no Montgomery form and is kept as is
+ */
+final class Montgomery {
+    private final long _modulus;
+    private final boolean _odd;
+    // -p^-1 mod 2^64
+    private final long _negativeInverse;
+    // 2^128 mod p, converts a residue into Montgomery form
+    private final long _r2;
+
+    Montgomery(long modulus){
+        _modulus = modulus;
+        _odd = (modulus & 1) != 0;
+
+        // newton's iteration doubles the correct low bits of p^-1 mod 2^64 every step (p is its own inverse mod 8)
+        long inverse = modulus;
+        for (int i = 0; i < 5; i++)
+            inverse *= 2 - modulus * inverse;
+        _negativeInverse = -inverse;
+        _r2 = BigInteger.ONE.shiftLeft(128).mod(BigInteger.valueOf(modulus)).longValue();
+    }
+
+    long getModulus(){
+        return _modulus;
+    }
+
+    // the Montgomery form of a residue in [0, p)
+    long toForm(long a){
+        return _odd ? multiply(a, _r2) : a;
+    }
+
+    // the residue in [0, p) of a Montgomery form
+    long fromForm(long a){
+        return _odd ? multiply(a, 1) : a;
+    }
+
+    long add(long a, long b){
+        long sum = a + b;
+        return sum >= _modulus ? sum - _modulus : sum;
+    }
+
+    long subtract(long a, long b){
+        long difference = a - b;
+        return difference < 0 ? difference + _modulus : difference;
+    }
+
+    // the product of two Montgomery forms, a*b*2^-64 mod p
+    long multiply(long a, long b){
+        if (!_odd)
+            return a & b;
+
+        // a*b < 2^124, so the high word and (t + m*p) / 2^64 < 2p stay positive
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        long m = low * _negativeInverse;
+        // the low words of a*b and m*p add up to 0 mod 2^64, with a carry unless both are 0
+        long result = high + unsignedMultiplyHigh(m, _modulus) + (low != 0 ? 1 : 0);
+        return result >= _modulus ? result - _modulus : result;
+    }
+
+    // the Montgomery form of the inverse of a nonzero Montgomery form
+    long inverse(long a){
+        return toForm(inverseOf(fromForm(a), _modulus));
+    }
+
+    /**
+     * calculate the inverse of a residue by the extended euclidean algorithm
+     * @param a represents the residue in [0, modulus)
+     * @param modulus represents the modulus
+     * @return the residue b such that a*b = 1 (mod modulus)
+     * @throws ArithmeticException in case a isn't invertible (shares a factor with the modulus)
+     */
+    static long inverseOf(long a, long modulus){
+        long r0 = modulus, r1 = a;
+        long t0 = 0, t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+        if (r0 != 1)
+            throw new ArithmeticException(a + " isn't invertible modulo " + modulus);
+        return t0 < 0 ? t0 + modulus : t0;
+    }
+
+    // the high word of the unsigned product of any m and a positive p
+    private static long unsignedMultiplyHigh(long m, long p){
+        return Math.multiplyHigh(m, p) + (m < 0 ? p : 0);
+    }
+}
@@ -0,0 +1,350 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+
+/**
+ * the householder QR decomposition with column pivoting, m*P = Q*R, of a matrix of any dimensions. at every step
+ * the remaining column of the largest norm is moved forward, so the diagonal of R is non-increasing in absolute
+ * value and reveals the rank of m. the factorization is blocked (as LAPACK's xGEQP3): within a block of columns
+ * the reflectors are applied only to the pivot column and to the current row of the rest of the matrix, which is
+ * enough to downdate the column norms, and the rest of the rows get the whole block of reflectors in a single
+ * parallel pass over the columns. the matrix is stored by columns, R above the diagonal and the reflectors below it.
+ * the decomposition is immutable, so it can solve any amount of right hand sides (see solve)
+ */
+public class QRDecomposition {
+    private static final int BLOCK_SIZE = 32;
+    // a downdated column norm that lost more than half of its digits is recalculated
+    private static final double NORM_TOLERANCE = Math.sqrt(Math.ulp(1.0));
+
+    // the columns of the factorized matrix
+    private final double[][] _qr;
+    private final double[] _tau;
+    private final int[] _columns;
+    private final int _rows;
+    private final int _cols;
+    private final double _tolerance;
+    private final int _rank;
+
+    /**
+     * factorize a given matrix, treating the diagonal entries of R below max(height, width) * ulp of the largest
+     * one as zero
+     * @param m represents the matrix operand, it is not modified
+     */
+    public QRDecomposition(Matrix m){
+        this(m, 0, true);
+    }
+
+    /**
+     * factorize a given matrix with a given zero tolerance
+     * @param m represents the matrix operand, it is not modified
+     * @param tolerance represents the absolute value at or below which a diagonal entry of R is treated as zero,
+     *                  it decides the rank
+     */
+    public QRDecomposition(Matrix m, double tolerance){
+        this(m, requireTolerance(tolerance), false);
+    }
+
+    private QRDecomposition(Matrix m, double tolerance, boolean defaultTolerance){
+        _rows = m.getHeight();
+        _cols = m.getWidth();
+        _qr = new double[_cols][_rows];
+        _tau = new double[Math.min(_rows, _cols)];
+        _columns = new int[_cols];
+
+        for (int y = 0; y < _rows; y++) {
+            double[] row = m.getRow(y);
+            for (int x = 0; x < _cols; x++)
+                _qr[x][y] = row[x];
+        }
+        for (int x = 0; x < _cols; x++)
+            _columns[x] = x;
+
+        factorize();
+
+        double largest = _tau.length == 0 ? 0 : Math.abs(_qr[0][0]);
+        _tolerance = defaultTolerance ? Math.max(_rows, _cols) * Math.ulp(largest) : tolerance;
+
+        int rank = 0;
+        while (rank < _tau.length && Math.abs(_qr[rank][rank]) > _tolerance)
+            rank++;
+        _rank = rank;
+    }
+
+    private static double requireTolerance(double tolerance){
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("the tolerance must be zero or positive");
+        return tolerance;
+    }
+
+    private void factorize(){
+        Kernels kernels = Kernels.get();
+        int n = _tau.length;
+        Job<?> job = Job.current();
+        if (job != null)
+            job.begin(n);
+
+        // the norms of the remaining part of every column, and their values when they were last calculated exactly
+        double[] norms = new double[_cols], exact = new double[_cols];
+        for (int x = 0; x < _cols; x++)
+            norms[x] = exact[x] = Math.sqrt(kernels.sumOfSquares(_qr[x], 0, _rows));
+
+        int j0 = 0;
+        while (j0 < n) {
+            final int first = j0;
+            int size = Math.min(BLOCK_SIZE, n - j0);
+            // row j - j0 of f holds the coefficients of the reflectors of the block still owed to column j, the
+            // rows below the block of every column j are (the current values) - sum of v_p * f[j - j0][p]
+            double[][] f = new double[_cols - j0][size];
+            boolean[] recalculate = new boolean[_cols];
+            boolean stop = false;
+
+            int kb = 0;
+            while (kb < size && !stop) {
+                int k = j0 + kb;
+
+                int p = k;
+                for (int x = k + 1; x < _cols; x++)
+                    if (norms[x] > norms[p])
+                        p = x;
+                if (p != k) {
+                    swap(_qr, p, k);
+                    swap(f, p - j0, k - j0);
+                    int t = _columns[p];
+                    _columns[p] = _columns[k];
+                    _columns[k] = t;
+                    norms[p] = norms[k];
+                    exact[p] = exact[k];
+                    recalculate[p] = recalculate[k];
+                }
+
+                // apply the reflectors of the block to the pivot column
+                double[] column = _qr[k];
+                double[] fk = f[k - j0];
+                for (int q = 0; q < kb; q++)
+                    if (fk[q] != 0)
+                        kernels.axpy(-fk[q], _qr[j0 + q], k, column, k, _rows - k);
+
+                double tau = reflect(column, k, kernels);
+                _tau[k] = tau;
+                double diagonal = column[k];
+                column[k] = 1;
+
+                // the coefficients of the new reflector: tau * (the original column - the reflectors so far)^t * v
+                final int step = kb;
+                if (tau != 0) {
+                    int grain = (int) Math.min(_cols, LUDecomposition.getParallelThreshold() / Math.max(1, _rows - k));
+                    RangeTask.run(k + 1, _cols, grain, (from, to) -> {
+                        for (int x = from; x < to; x++)
+                            f[x - first][step] = tau * kernels.dot(_qr[x], k, column, k, 0, _rows - k);
+                    });
+                }
+                if (kb > 0 && tau != 0) {
+                    double[] overlap = new double[kb];
+                    for (int q = 0; q < kb; q++)
+                        overlap[q] = -tau * kernels.dot(_qr[j0 + q], k, column, k, 0, _rows - k);
+                    for (int x = k + 1; x < _cols; x++) {
+                        double[] fx = f[x - j0];
+                        double sum = 0;
+                        for (int q = 0; q < kb; q++)
+                            sum += fx[q] * overlap[q];
+                        fx[kb] += sum;
+                    }
+                }
+
+                // apply the reflectors of the block to row k of the rest of the columns, and downdate their norms
+                for (int x = k + 1; x < _cols; x++) {
+                    double[] fx = f[x - j0];
+                    double sum = 0;
+                    for (int q = 0; q <= kb; q++)
+                        sum += _qr[j0 + q][k] * fx[q];
+                    double value = _qr[x][k] -= sum;
+
+                    if (k < n - 1 && norms[x] != 0) {
+                        double ratio = Math.abs(value) / norms[x];
+                        double remaining = Math.max(0, (1 + ratio) * (1 - ratio));
+                        double relative = norms[x] / exact[x];
+                        if (remaining * relative * relative <= NORM_TOLERANCE) {
+                            recalculate[x] = true;
+                            stop = true;
+                        } else
+                            norms[x] *= Math.sqrt(remaining);
+                    }
+                }
+
+                column[k] = diagonal;
+                kb++;
+            }
+
+            // apply the reflectors of the block to the rest of the rows of the rest of the columns
+            final int steps = kb, r0 = j0 + kb;
+            if (r0 < _cols && r0 < _rows) {
+                long work = (long) steps * (_rows - r0);
+                int grain = (int) Math.min(_cols, LUDecomposition.getParallelThreshold() / Math.max(1, work));
+                RangeTask.run(r0, _cols, grain, (from, to) -> {
+                    for (int x = from; x < to; x++) {
+                        double[] fx = f[x - first];
+                        for (int q = 0; q < steps; q++)
+                            if (fx[q] != 0)
+                                kernels.axpy(-fx[q], _qr[first + q], r0, _qr[x], r0, _rows - r0);
+                    }
+                });
+            }
+
+            for (int x = r0; x < _cols; x++)
+                if (recalculate[x])
+                    norms[x] = exact[x] = Math.sqrt(kernels.sumOfSquares(_qr[x], r0, _rows - r0));
+
+            j0 = r0;
+            if (job != null)
+                job.advance(steps);
+        }
+    }
+
+    /**
+     * replace a column from row k downwards by a householder reflector H = I - tau*v*v^t such that H*x = (beta, 0,
+     * ..., 0): beta is written at row k and v (whose first value is 1) below it
+     * @return tau, 0 if the column is already zero below row k
+     */
+    private double reflect(double[] column, int k, Kernels kernels){
+        double alpha = column[k];
+        double norm = Math.sqrt(kernels.sumOfSquares(column, k + 1, _rows - k - 1));
+        if (norm == 0)
+            return 0;
+
+        double beta = -Math.copySign(Math.hypot(alpha, norm), alpha);
+        kernels.scale(column, k + 1, 1 / (alpha - beta), column, k + 1, _rows - k - 1);
+        column[k] = beta;
+        return (beta - alpha) / beta;
+    }
+
+    private static void swap(double[][] a, int i, int j){
+        double[] temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public int getRank(){
+        return _rank;
+    }
+
+    /**
+     * @return whether the columns of the factorized matrix are linearly independent
+     */
+    public boolean isFullRank(){
+        return _rank == _cols;
+    }
+
+    /**
+     * @return the absolute value at or below which a diagonal entry of R is treated as zero
+     */
+    public double getTolerance(){
+        return _tolerance;
+    }
+
+    /**
+     * @return the column permutation, column i of m*P is column getColumnPivot()[i] of m
+     */
+    public int[] getColumnPivot(){
+        return _columns.clone();
+    }
+
+    /**
+     * @return the permutation matrix P such that m*P = Q*R
+     */
+    public Matrix getP(){
+        Matrix result = new Matrix(_cols, _cols);
+        for (int x = 0; x < _cols; x++)
+            result.set(x, _columns[x], 1);
+        return result;
+    }
+
+    /**
+     * @return the upper trapezoidal factor R, of min(height, width) rows and the width of the factorized matrix
+     */
+    public Matrix getR(){
+        Matrix result = new Matrix(_cols, _tau.length);
+        for (int x = 0; x < _cols; x++)
+            for (int y = 0; y <= Math.min(x, _tau.length - 1); y++)
+                result.set(x, y, _qr[x][y]);
+        return result;
+    }
+
+    /**
+     * @return the factor Q with orthonormal columns, of the height of the factorized matrix and min(height, width)
+     * columns (the thin Q)
+     */
+    public Matrix getQ(){
+        int n = _tau.length;
+        double[][] columns = new double[n][_rows];
+        for (int x = 0; x < n; x++) {
+            columns[x][x] = 1;
+            applyQ(columns[x], false);
+        }
+
+        Matrix result = new Matrix(n, _rows);
+        for (int x = 0; x < n; x++)
+            for (int y = 0; y < _rows; y++)
+                result.set(x, y, columns[x][y]);
+        return result;
+    }
+
+    /**
+     * solve the least squares problem of m*X = b, the X that minimizes the 2-norm of every column of m*X - b,
+     * by X = P * R^-1 * Q^t * b. if m is rank deficient (or has fewer rows than columns) the basic solution is
+     * returned: the unknowns of the columns beyond the rank (in the pivoted order) are zero
+     * @param b represents the right hand side, must have the same height as the factorized matrix
+     * @return the least squares solution X, of the width of the factorized matrix and the width of b
+     * @throws IncompatibleDimensionsException in case b has a different height than the factorized matrix
+     */
+    public Matrix solve(Matrix b) throws IncompatibleDimensionsException {
+        if (b.getHeight() != _rows)
+            throw new IncompatibleDimensionsException();
+
+        int width = b.getWidth();
+        double[][] columns = new double[width][_rows];
+        for (int y = 0; y < _rows; y++) {
+            double[] row = b.getRow(y);
+            for (int x = 0; x < width; x++)
+                columns[x][y] = row[x];
+        }
+
+        // every column of b is solved on its own, with the reflectors streaming past it
+        Kernels kernels = Kernels.get();
+        long work = 4L * _rows * _tau.length;
+        int grain = (int) Math.min(width, LUDecomposition.getParallelThreshold() / Math.max(1, work));
+        RangeTask.run(0, width, grain, (from, to) -> {
+            for (int x = from; x < to; x++) {
+                double[] c = columns[x];
+                applyQ(c, true);
+                // back substitution with the leading rank x rank block of R, by columns
+                for (int k = _rank - 1; k >= 0; k--) {
+                    c[k] /= _qr[k][k];
+                    kernels.axpy(-c[k], _qr[k], 0, c, 0, k);
+                }
+            }
+        });
+
+        Matrix result = new Matrix(width, _cols);
+        for (int x = 0; x < width; x++)
+            for (int k = 0; k < _rank; k++)
+                result.set(x, _columns[k], columns[x][k]);
+        return result;
+    }
+
+    // c := Q^t*c (transposed) or c := Q*c, Q = H_0 * H_1 * ... * H_n-1
+    private void applyQ(double[] c, boolean transposed){
+        Kernels kernels = Kernels.get();
+        int n = _tau.length;
+        for (int i = 0; i < n; i++) {
+            int k = transposed ? i : n - 1 - i;
+            double tau = _tau[k];
+            if (tau == 0)
+                continue;
+
+            double[] v = _qr[k];
+            double s = tau * (c[k] + kernels.dot(v, k + 1, c, k + 1, 0, _rows - k - 1));
+            c[k] -= s;
+            kernels.axpy(-s, v, k + 1, c, k + 1, _rows - k - 1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package logic;
+
+import logic.metrics.Metrics;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * runs an action over a range of indices, split in halves on the pool of BlockedMultiplication until the ranges
+ * are shorter than twice the grain
+ */
+class RangeTask extends RecursiveAction {
+    @FunctionalInterface
+    interface Action {
+        void apply(int from, int to);
+    }
+
+    private final Action _action;
+    private final int _grain, _from, _to;
+    // the instrumented call that runs the action, its allocations on the pool count for it
+    private final Metrics.Timer _timer;
+
+    private RangeTask(Action action, int grain, int from, int to, Metrics.Timer timer){
+        _action = action;
+        _timer = timer;
+        _grain = grain;
+        _from = from;
+        _to = to;
+    }
+
+    /**
+     * run an action over [from, to), on the calling thread if the range is shorter than twice the grain
+     * @param grain represents the shortest range worth a task of its own
+     */
+    static void run(int from, int to, int grain, Action action){
+        grain = Math.max(1, grain);
+        if (to - from < 2 * grain)
+            action.apply(from, to);
+        else
+            BlockedMultiplication.getPool().invoke(new RangeTask(action, grain, from, to, Metrics.current()));
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void compute() {
+        if (_to - _from < 2 * _grain) {
+            try (Metrics.Span span = Metrics.join(_timer)) {
+                _action.apply(_from, _to);
+            }
+            return;
+        }
+
+        int mid = (_from + _to) >>> 1;
+        invokeAll(new RangeTask(_action, _grain, _from, mid, _timer), new RangeTask(_action, _grain, mid, _to, _timer));
+    }
+}
@@ -0,0 +1,207 @@
+package logic;
+
+import logic.exceptions.NonInvertibleMatrixException;
+import logic.exceptions.NonSquareMatrixException;
+
+import java.math.BigInteger;
+
+/**
+ * exact operations on rational matrices (see RationalMatrix). every row is scaled by the common denominator of its
+ * values to integers, and the integer rows are eliminated without fractions (Bareiss): every step cross-multiplies
+ * by the pivot and divides exactly by the previous pivot, so every entry stays a minor of the matrix and grows only
+ * linearly in bits. the entries are longs, a cross product that overflows is recalculated in BigInteger, and an
+ * ArithmeticException is thrown only if a minor (or a value of the result) doesn't fit in a long
+ */
+public class RationalCalculations {
+
+    /**
+     * calculate the exact determinant of a given matrix
+     * @param m represents the matrix operand
+     * @return the result of |m|
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     */
+    public static Fraction det(RationalMatrix m) throws NonSquareMatrixException {
+        int n = m.getWidth();
+        if (n != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        long[] scales = new long[n];
+        Elimination elimination = new Elimination(integerRows(m, n, scales), n, false);
+        if (elimination._rank < n)
+            return Fraction.ZERO;
+
+        // the scaled matrix has the determinant of m times the product of the scales
+        Fraction result = new Fraction(elimination._sign * (n == 0 ? 1 : elimination._rows[n - 1][n - 1]));
+        for (long scale : scales)
+            result = result.divide(scale);
+        return result;
+    }
+
+    /**
+     * calculate the rank of a given matrix
+     * @param m represents the matrix operand
+     * @return the amount of linearly independent rows of m
+     */
+    public static int rank(RationalMatrix m){
+        return new Elimination(integerRows(m, m.getWidth(), new long[m.getHeight()]), m.getWidth(), false)._rank;
+    }
+
+    /**
+     * calculate the row echelon form (with leading ones) of a given matrix
+     * @param m represents the matrix operand
+     * @return the row echelon form of m
+     */
+    public static RationalMatrix rowEchelonForm(RationalMatrix m){
+        return echelonForm(m, false);
+    }
+
+    /**
+     * calculate the reduced row echelon form of a given matrix
+     * @param m represents the matrix operand
+     * @return the reduced row echelon form of m
+     */
+    public static RationalMatrix reducedRowEchelonForm(RationalMatrix m){
+        return echelonForm(m, true);
+    }
+
+    /**
+     * calculate the exact inverse of a given matrix, by reducing [m | I] without fractions
+     * @param m represents the matrix operand
+     * @return the result of m^-1
+     * @throws NonSquareMatrixException in case the matrix isn't squared
+     * @throws NonInvertibleMatrixException in case |m| = 0
+     */
+    public static RationalMatrix invert(RationalMatrix m) throws NonSquareMatrixException, NonInvertibleMatrixException {
+        int n = m.getWidth();
+        if (n != m.getHeight())
+            throw new NonSquareMatrixException();
+
+        long[] scales = new long[n];
+        long[][] rows = integerRows(m, 2 * n, scales);
+        for (int y = 0; y < n; y++)
+            rows[y][n + y] = 1;
+
+        Elimination elimination = new Elimination(rows, n, true);
+        if (elimination._rank < n)
+            throw new NonInvertibleMatrixException();
+
+        // the reduction leaves [d*I | d*(S*m)^-1] for the scales S, and m^-1 = (S*m)^-1 * S
+        RationalMatrix result = new RationalMatrix(n, n);
+        for (int y = 0; y < n; y++) {
+            long[] row = elimination._rows[y];
+            long d = row[y];
+            for (int x = 0; x < n; x++)
+                result.set(x, y, new Fraction(row[n + x], d).multiply(scales[x]));
+        }
+        return result;
+    }
+
+    private static RationalMatrix echelonForm(RationalMatrix m, boolean reduced){
+        int width = m.getWidth();
+        Elimination elimination = new Elimination(integerRows(m, width, new long[m.getHeight()]), width, reduced);
+
+        RationalMatrix result = new RationalMatrix(width, m.getHeight());
+        for (int y = 0; y < elimination._rank; y++) {
+            long[] row = elimination._rows[y];
+            int col = elimination._pivotCols[y];
+            for (int x = col; x < width; x++)
+                result.set(x, y, new Fraction(row[x], row[col]));
+        }
+        return result;
+    }
+
+    /**
+     * scale the rows of a matrix to integers by the least common multiple of their denominators
+     * @param width represents the width of the rows to create, the values of m are padded with zeros
+     * @param scales represents the array the scale of every row is written into
+     * @return the integer rows
+     */
+    private static long[][] integerRows(RationalMatrix m, int width, long[] scales){
+        long[] numerators = m.getNumerators(), denominators = m.getDenominators();
+        long[][] rows = new long[m.getHeight()][width];
+
+        for (int y = 0, offset = 0; y < rows.length; y++, offset += m.getWidth()) {
+            long scale = 1;
+            for (int x = 0; x < m.getWidth(); x++) {
+                long denominator = denominators[offset + x];
+                scale = Math.multiplyExact(scale / Fraction.gcd(scale, denominator), denominator);
+            }
+            for (int x = 0; x < m.getWidth(); x++)
+                rows[y][x] = Math.multiplyExact(numerators[offset + x], scale / denominators[offset + x]);
+            scales[y] = scale;
+        }
+        return rows;
+    }
+
+    // (a*b - c*d) / divisor, where the division is known to be exact
+    private static long crossDivide(long a, long b, long c, long d, long divisor){
+        try {
+            return Math.subtractExact(Math.multiplyExact(a, b), Math.multiplyExact(c, d)) / divisor;
+        } catch (ArithmeticException e) {
+            // the products overflow, but the quotient is a minor of the matrix and usually fits
+            BigInteger result = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                    .subtract(BigInteger.valueOf(c).multiply(BigInteger.valueOf(d)))
+                    .divide(BigInteger.valueOf(divisor));
+            if (result.bitLength() > 63)
+                throw new ArithmeticException("a minor of the matrix doesn't fit in a long: " + result);
+            return result.longValue();
+        }
+    }
+
+    // fraction-free gaussian (or gauss-jordan) elimination of integer rows, in place
+    private static class Elimination {
+        private final long[][] _rows;
+        private final int[] _pivotCols;
+        private final int _rank;
+        private final int _sign;
+
+        /**
+         * @param rows represents the integer rows, they are changed
+         * @param cols represents the amount of columns to look for pivots in (the rest of the columns only follow)
+         * @param reduced represents whether the entries above the pivots are erased as well, in which case every
+         *                pivot ends up equal to the last one
+         */
+        Elimination(long[][] rows, int cols, boolean reduced){
+            _rows = rows;
+            _pivotCols = new int[Math.min(rows.length, cols)];
+
+            int sign = 1;
+            long previous = 1;
+            int row = 0;
+            for (int col = 0; col < cols && row < rows.length; col++) {
+                int p = row;
+                while (p < rows.length && rows[p][col] == 0)
+                    p++;
+                if (p == rows.length)
+                    continue;
+
+                if (p != row) {
+                    long[] temp = rows[p];
+                    rows[p] = rows[row];
+                    rows[row] = temp;
+                    sign = -sign;
+                }
+
+                long[] pivotRow = rows[row];
+                long pivot = pivotRow[col];
+                // every other row is multiplied by the pivot even if it has nothing to erase, that keeps all the
+                // entries minors of the matrix so the division by the previous pivot is exact
+                for (int i = reduced ? 0 : row + 1; i < rows.length; i++) {
+                    if (i == row)
+                        continue;
+                    long[] r = rows[i];
+                    long multiple = r[col];
+                    for (int j = reduced ? 0 : col + 1; j < r.length; j++)
+                        r[j] = crossDivide(pivot, r[j], multiple, pivotRow[j], previous);
+                    r[col] = 0;
+                }
+
+                previous = pivot;
+                _pivotCols[row++] = col;
+            }
+
+            _rank = row;
+            _sign = sign;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * a matrix of exact rational numbers, stored as two row-major arrays of primitive longs (the numerators and the
+ * positive denominators, in lowest terms). the operations on it are exact, see RationalCalculations
+ */
+public class RationalMatrix {
+    private final long[] _numerators;
+    private final long[] _denominators;
+    private final int _width;
+    private final int _height;
+
+    /**
+     * create a zero matrix
+     * @param width represents the amount of columns
+     * @param height represents the amount of rows
+     */
+    public RationalMatrix(int width, int height){
+        _width = width;
+        _height = height;
+        _numerators = new long[Math.multiplyExact(width, height)];
+        _denominators = new long[_numerators.length];
+        Arrays.fill(_denominators, 1);
+    }
+
+    /**
+     * convert a matrix of doubles into the rational matrix of exactly the same values
+     * @param m represents the matrix to convert
+     * @return a rational matrix equal to m
+     * @throws ArithmeticException in case a value of m isn't finite or doesn't fit in a fraction of longs
+     */
+    public static RationalMatrix of(Matrix m){
+        RationalMatrix result = new RationalMatrix(m.getWidth(), m.getHeight());
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < m.getWidth(); x++)
+                result.set(x, y, Fraction.valueOf(m.get(x, y)));
+        return result;
+    }
+
+    public int getWidth(){
+        return _width;
+    }
+
+    public int getHeight(){
+        return _height;
+    }
+
+    public Fraction get(int x, int y){
+        int i = y * _width + x;
+        return new Fraction(_numerators[i], _denominators[i]);
+    }
+
+    public void set(int x, int y, Fraction val){
+        int i = y * _width + x;
+        _numerators[i] = val.getNumerator();
+        _denominators[i] = val.getDenominator();
+    }
+
+    /**
+     * @param numerator represents the numerator of the value
+     * @param denominator represents the denominator of the value, nonzero
+     */
+    public void set(int x, int y, long numerator, long denominator){
+        set(x, y, new Fraction(numerator, denominator));
+    }
+
+    /**
+     * @return a matrix of the nearest doubles to the values
+     */
+    public Matrix toMatrix(){
+        Matrix result = new Matrix(_width, _height);
+        for (int y = 0; y < _height; y++)
+            for (int x = 0; x < _width; x++) {
+                int i = y * _width + x;
+                result.set(x, y, (double) _numerators[i] / _denominators[i]);
+            }
+        return result;
+    }
+
+    // the backing arrays, the value (x, y) at y * width + x
+    long[] getNumerators(){
+        return _numerators;
+    }
+
+    long[] getDenominators(){
+        return _denominators;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RationalMatrix m && _width == m._width && _height == m._height
+                && Arrays.equals(_numerators, m._numerators) && Arrays.equals(_denominators, m._denominators);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * _width + Arrays.hashCode(_numerators)) + Arrays.hashCode(_denominators);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int y = 0; y < _height; y++) {
+            for (int x = 0; x < _width; x++)
+                result.append(x == 0 ? "" : " ").append(get(x, y));
+            result.append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,238 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+
+import java.util.Arrays;
+
+/**
+ * the operations of MatrixCalculations for sparse operands, in time proportional to the amount of nonzero values
+ */
+public class SparseCalculations {
+    // matrices with a larger ratio of nonzero values are stored dense by compact()
+    private static final double DENSE_THRESHOLD = 0.25;
+
+    /**
+     * store a matrix in the cheaper representation for its density, a dense matrix when more than a quarter
+     * of its values are nonzero, and a compressed rows sparse matrix otherwise
+     * @param m represents the matrix operand
+     * @return m itself when it already has the chosen representation, otherwise a copy of it
+     */
+    public static MatrixView compact(MatrixView m){
+        double density = (double) m.countNonZeros() / ((double) m.getWidth() * m.getHeight());
+
+        if (density > DENSE_THRESHOLD)
+            return m instanceof Matrix ? m : m.toMatrix();
+        return m instanceof SparseMatrix ? m : SparseMatrix.of(m, SparseMatrix.Format.CSR);
+    }
+
+    /**
+     * calculate the result of addition between two sparse matrices
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1+m2, in the format of m1
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static SparseMatrix add(SparseMatrix m1, SparseMatrix m2) throws IncompatibleDimensionsException {
+        return merge(m1, m2, 1);
+    }
+
+    /**
+     * calculate the result of subtraction between two sparse matrices
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1-m2, in the format of m1
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static SparseMatrix sub(SparseMatrix m1, SparseMatrix m2) throws IncompatibleDimensionsException {
+        return merge(m1, m2, -1);
+    }
+
+    // m1 + sign * m2, merging the sorted lines of both operands
+    private static SparseMatrix merge(SparseMatrix m1, SparseMatrix m2, double sign) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getWidth() || m1.getHeight() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        m2 = m2.toFormat(m1.getFormat());
+        int[] p1 = m1.getPointers(), i1 = m1.getIndices(), p2 = m2.getPointers(), i2 = m2.getIndices();
+        double[] v1 = m1.getValues(), v2 = m2.getValues();
+
+        int lines = p1.length - 1;
+        int[] pointers = new int[lines + 1];
+        int[] indices = new int[(int) (m1.countNonZeros() + m2.countNonZeros())];
+        double[] values = new double[indices.length];
+        int nnz = 0;
+
+        for (int line = 0; line < lines; line++) {
+            int a = p1[line], aEnd = p1[line + 1], b = p2[line], bEnd = p2[line + 1];
+            while (a < aEnd || b < bEnd) {
+                int index;
+                double value;
+                if (b == bEnd || (a < aEnd && i1[a] < i2[b])) {
+                    index = i1[a];
+                    value = v1[a++];
+                } else if (a == aEnd || i2[b] < i1[a]) {
+                    index = i2[b];
+                    value = sign * v2[b++];
+                } else {
+                    index = i1[a];
+                    value = v1[a++] + sign * v2[b++];
+                }
+
+                if (value != 0) {
+                    indices[nnz] = index;
+                    values[nnz++] = value;
+                }
+            }
+            pointers[line + 1] = nnz;
+        }
+
+        return new SparseMatrix(m1.getWidth(), m1.getHeight(), m1.getFormat(), pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    /**
+     * calculate the multiplication of a given sparse matrix with a scalar
+     * @param m represents the matrix operand
+     * @param scalar represents the scalar operand
+     * @return the result of c*m
+     */
+    public static SparseMatrix multiply(SparseMatrix m, double scalar){
+        if (scalar == 0)
+            return new SparseMatrix.Builder(m.getWidth(), m.getHeight()).build(m.getFormat());
+
+        double[] values = m.getValues().clone();
+        for (int i = 0; i < values.length; i++)
+            values[i] *= scalar;
+        return new SparseMatrix(m.getWidth(), m.getHeight(), m.getFormat(), m.getPointers(), m.getIndices(), values);
+    }
+
+    /**
+     * calculate the result of multiplication between two sparse matrices (Gustavson's row by row algorithm),
+     * in time proportional to the amount of multiplied nonzero pairs
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @return the result of m1*m2 in compressed rows
+     * @throws IncompatibleDimensionsException in case the width of m1 isn't the height of m2
+     */
+    public static SparseMatrix multiply(SparseMatrix m1, SparseMatrix m2) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        m1 = m1.toFormat(SparseMatrix.Format.CSR);
+        m2 = m2.toFormat(SparseMatrix.Format.CSR);
+        int[] p1 = m1.getPointers(), i1 = m1.getIndices(), p2 = m2.getPointers(), i2 = m2.getIndices();
+        double[] v1 = m1.getValues(), v2 = m2.getValues();
+
+        int height = m1.getHeight(), width = m2.getWidth();
+        int[] pointers = new int[height + 1];
+        int[] indices = new int[Math.max(16, (int) Math.min(Integer.MAX_VALUE - 8, m1.countNonZeros() + m2.countNonZeros()))];
+        double[] values = new double[indices.length];
+        int nnz = 0;
+
+        // a dense accumulator for the current row, marked[x] == y + 1 when column x was touched in row y
+        double[] accumulator = new double[width];
+        int[] marked = new int[width];
+        int[] touched = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            int count = 0;
+            for (int a = p1[y]; a < p1[y + 1]; a++) {
+                int k = i1[a];
+                double value = v1[a];
+                for (int b = p2[k]; b < p2[k + 1]; b++) {
+                    int x = i2[b];
+                    if (marked[x] != y + 1) {
+                        marked[x] = y + 1;
+                        touched[count++] = x;
+                        accumulator[x] = 0;
+                    }
+                    accumulator[x] += value * v2[b];
+                }
+            }
+
+            Arrays.sort(touched, 0, count);
+            if (nnz + count > indices.length) {
+                int capacity = Math.max(nnz + count, indices.length * 2);
+                indices = Arrays.copyOf(indices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int i = 0; i < count; i++) {
+                double value = accumulator[touched[i]];
+                if (value != 0) {
+                    indices[nnz] = touched[i];
+                    values[nnz++] = value;
+                }
+            }
+            pointers[y + 1] = nnz;
+        }
+
+        return new SparseMatrix(width, height, SparseMatrix.Format.CSR, pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    /**
+     * calculate the result of multiplication between a sparse matrix and a dense matrix
+     * @param m1 represents the left (first) sparse operand
+     * @param m2 represents the right (second) dense operand
+     * @return the dense result of m1*m2
+     * @throws IncompatibleDimensionsException in case the width of m1 isn't the height of m2
+     */
+    public static Matrix multiply(SparseMatrix m1, Matrix m2) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        m1 = m1.toFormat(SparseMatrix.Format.CSR);
+        int[] p = m1.getPointers(), indices = m1.getIndices();
+        double[] v = m1.getValues(), b = Matrix.rowMajor(m2).getData();
+        int w = m2.getWidth();
+        Matrix result = new Matrix(w, m1.getHeight());
+        double[] c = result.getData();
+
+        // every nonzero m1[y][k] adds a multiple of row k of m2 to row y of the result
+        for (int y = 0; y < m1.getHeight(); y++)
+            for (int a = p[y]; a < p[y + 1]; a++) {
+                double value = v[a];
+                for (int x = 0, bi = indices[a] * w, ci = y * w; x < w; x++)
+                    c[ci + x] += value * b[bi + x];
+            }
+
+        return result;
+    }
+
+    /**
+     * calculate the result of multiplication between a dense matrix and a sparse matrix
+     * @param m1 represents the left (first) dense operand
+     * @param m2 represents the right (second) sparse operand
+     * @return the dense result of m1*m2
+     * @throws IncompatibleDimensionsException in case the width of m1 isn't the height of m2
+     */
+    public static Matrix multiply(Matrix m1, SparseMatrix m2) throws IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        m2 = m2.toFormat(SparseMatrix.Format.CSR);
+        int[] p = m2.getPointers(), indices = m2.getIndices();
+        double[] v = m2.getValues(), a = Matrix.rowMajor(m1).getData();
+        int k = m1.getWidth(), w = m2.getWidth();
+        Matrix result = new Matrix(w, m1.getHeight());
+        double[] c = result.getData();
+
+        // every nonzero m2[i][x] adds m1[y][i] * m2[i][x] to result[y][x] for all y
+        for (int y = 0; y < m1.getHeight(); y++)
+            for (int i = 0, ai = y * k, ci = y * w; i < k; i++) {
+                double value = a[ai + i];
+                if (value != 0)
+                    for (int b = p[i]; b < p[i + 1]; b++)
+                        c[ci + indices[b]] += value * v[b];
+            }
+
+        return result;
+    }
+
+    /**
+     * calculate the transposed matrix of a given sparse matrix
+     * @param m represents the matrix operand
+     * @return the result of m^t, in the format of m (use m.transpose() for an O(1) result in the opposite format)
+     */
+    public static SparseMatrix transpose(SparseMatrix m){
+        return m.transpose().toFormat(m.getFormat());
+    }
+}
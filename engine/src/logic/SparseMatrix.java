@@ -0,0 +1,260 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * an immutable matrix that stores only its nonzero values, in compressed rows (CSR) or compressed columns (CSC).
+ * the lines of the compressed dimension (rows for CSR, columns for CSC) are described by _pointers, line i holds
+ * the values _values[_pointers[i]] to _values[_pointers[i+1]-1], and _indices holds the position of every value
+ * within its line (the column for CSR, the row for CSC) in increasing order
+ */
+public class SparseMatrix implements MatrixView {
+    /**
+     * CSR keeps every row contiguous and CSC keeps every column contiguous, the same as the layouts of a dense matrix
+     */
+    public enum Format {
+        CSR,
+        CSC
+    }
+
+    private final int _width;
+    private final int _height;
+    private final Format _format;
+    private final int[] _pointers;
+    private final int[] _indices;
+    private final double[] _values;
+
+    // wraps the given arrays without copying them
+    SparseMatrix(int width, int height, Format format, int[] pointers, int[] indices, double[] values){
+        _width = width;
+        _height = height;
+        _format = format;
+        _pointers = pointers;
+        _indices = indices;
+        _values = values;
+    }
+
+    /**
+     * copy the nonzero values of a matrix into a sparse matrix
+     * @param m represents the matrix to copy
+     * @param format represents the format of the result
+     * @return the sparse copy of m
+     */
+    public static SparseMatrix of(MatrixView m, Format format){
+        if (m instanceof SparseMatrix s)
+            return s.toFormat(format);
+
+        Builder builder = new Builder(m.getWidth(), m.getHeight());
+        for (int y = 0; y < m.getHeight(); y++)
+            for (int x = 0; x < m.getWidth(); x++) {
+                double v = m.get(x, y);
+                if (v != 0)
+                    builder.add(x, y, v);
+            }
+        return builder.build(format);
+    }
+
+    @Override
+    public int getWidth(){
+        return _width;
+    }
+
+    @Override
+    public int getHeight(){
+        return _height;
+    }
+
+    public Format getFormat(){
+        return _format;
+    }
+
+    @Override
+    public double get(int x, int y){
+        if (x < 0 || x >= _width || y < 0 || y >= _height)
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") is outside of a " + _width + "x" + _height + " matrix");
+
+        int line = _format == Format.CSR ? y : x;
+        int index = _format == Format.CSR ? x : y;
+        int i = Arrays.binarySearch(_indices, _pointers[line], _pointers[line + 1], index);
+        return i >= 0 ? _values[i] : 0;
+    }
+
+    @Override
+    public long countNonZeros(){
+        return _pointers[_pointers.length - 1];
+    }
+
+    /**
+     * @return the ratio of stored values out of all the values of the matrix
+     */
+    public double getDensity(){
+        return (double) countNonZeros() / ((double) _width * _height);
+    }
+
+    public boolean isZero(){
+        for (int i = 0; i < countNonZeros(); i++)
+            if (_values[i] != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * @param format represents the wanted format
+     * @return this matrix if it already is in the given format, otherwise a copy of it converted in O(nnz)
+     */
+    public SparseMatrix toFormat(Format format){
+        if (format == _format)
+            return this;
+
+        // the other format of m is the same format of m^t, which is a counting sort of the values by their index
+        int lines = _format == Format.CSR ? _width : _height;
+        int nnz = (int) countNonZeros();
+        int[] pointers = new int[lines + 1];
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+
+        for (int i = 0; i < nnz; i++)
+            pointers[_indices[i] + 1]++;
+        for (int i = 0; i < lines; i++)
+            pointers[i + 1] += pointers[i];
+
+        int[] next = Arrays.copyOf(pointers, lines);
+        for (int line = 0; line < _pointers.length - 1; line++)
+            for (int i = _pointers[line]; i < _pointers[line + 1]; i++) {
+                int j = next[_indices[i]]++;
+                indices[j] = line;
+                values[j] = _values[i];
+            }
+
+        return new SparseMatrix(_width, _height, format, pointers, indices, values);
+    }
+
+    /**
+     * @return m^t, which shares the arrays of this matrix and has the opposite format (O(1))
+     */
+    public SparseMatrix transpose(){
+        return new SparseMatrix(_height, _width, _format == Format.CSR ? Format.CSC : Format.CSR, _pointers, _indices, _values);
+    }
+
+    @Override
+    public Matrix toMatrix(){
+        Matrix result = new Matrix(_width, _height);
+        for (int line = 0; line < _pointers.length - 1; line++)
+            for (int i = _pointers[line]; i < _pointers[line + 1]; i++)
+                if (_format == Format.CSR)
+                    result.set(_indices[i], line, _values[i]);
+                else
+                    result.set(line, _indices[i], _values[i]);
+        return result;
+    }
+
+    int[] getPointers(){
+        return _pointers;
+    }
+
+    int[] getIndices(){
+        return _indices;
+    }
+
+    double[] getValues(){
+        return _values;
+    }
+
+    /**
+     * collects values as (x, y, value) coordinate triples (COO) in any order and compresses them into a sparse matrix,
+     * values added to the same position are summed and positions that sum up to zero are not stored
+     */
+    public static class Builder {
+        private final int _width;
+        private final int _height;
+        private int[] _xs;
+        private int[] _ys;
+        private double[] _values;
+        private int _size;
+
+        public Builder(int width, int height){
+            this(width, height, 16);
+        }
+
+        /**
+         * @param width represents the width of the built matrix
+         * @param height represents the height of the built matrix
+         * @param capacity represents the expected amount of values, to avoid growing the buffers
+         */
+        public Builder(int width, int height, int capacity){
+            _width = width;
+            _height = height;
+            _xs = new int[Math.max(capacity, 1)];
+            _ys = new int[_xs.length];
+            _values = new double[_xs.length];
+        }
+
+        public Builder add(int x, int y, double value){
+            if (x < 0 || x >= _width || y < 0 || y >= _height)
+                throw new IndexOutOfBoundsException("(" + x + "," + y + ") is outside of a " + _width + "x" + _height + " matrix");
+
+            if (_size == _xs.length) {
+                int capacity = _xs.length * 2;
+                _xs = Arrays.copyOf(_xs, capacity);
+                _ys = Arrays.copyOf(_ys, capacity);
+                _values = Arrays.copyOf(_values, capacity);
+            }
+            _xs[_size] = x;
+            _ys[_size] = y;
+            _values[_size++] = value;
+            return this;
+        }
+
+        /**
+         * compress the collected values, in O(nnz + lines) time
+         * @param format represents the format of the built matrix
+         * @return the built matrix
+         */
+        public SparseMatrix build(Format format){
+            boolean isCsr = format == Format.CSR;
+            int[] lineOf = isCsr ? _ys : _xs;
+            int[] indexOf = isCsr ? _xs : _ys;
+            int lines = isCsr ? _height : _width;
+
+            // sort by line, then by index within the line, with two stable counting sorts (by index first)
+            int[] byIndex = countingSort(indexOf, null, isCsr ? _width : _height);
+            int[] order = countingSort(lineOf, byIndex, lines);
+
+            int[] pointers = new int[lines + 1];
+            int[] indices = new int[_size];
+            double[] values = new double[_size];
+            int nnz = 0;
+            for (int i = 0; i < _size; ) {
+                int line = lineOf[order[i]], index = indexOf[order[i]];
+                double sum = 0;
+                for (; i < _size && lineOf[order[i]] == line && indexOf[order[i]] == index; i++)
+                    sum += _values[order[i]];
+                if (sum != 0) {
+                    indices[nnz] = index;
+                    values[nnz++] = sum;
+                    pointers[line + 1]++;
+                }
+            }
+            for (int i = 0; i < lines; i++)
+                pointers[i + 1] += pointers[i];
+
+            return new SparseMatrix(_width, _height, format, pointers, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz));
+        }
+
+        // the positions of the entries ordered by key, keeping the relative order of previous (null for natural order)
+        private int[] countingSort(int[] keys, int[] previous, int range){
+            int[] counts = new int[range + 1];
+            for (int i = 0; i < _size; i++)
+                counts[keys[i] + 1]++;
+            for (int i = 0; i < range; i++)
+                counts[i + 1] += counts[i];
+
+            int[] result = new int[_size];
+            for (int i = 0; i < _size; i++) {
+                int entry = previous == null ? i : previous[i];
+                result[counts[keys[entry]]++] = entry;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package logic;
+
+import logic.metrics.Metrics;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Strassen-Winograd matrix multiplication: the operands are split into 2x2 blocks and the product takes 7 block
+ * products and 15 block additions instead of 8 products, recursively down to the cutoff, where the blocked kernel
+ * (see BlockedMultiplication) takes over. odd dimensions are peeled, the last row, column or inner index is
+ * calculated separately. the 7 products of the top levels are calculated in parallel on the pool of
+ * BlockedMultiplication, the lower levels reuse two temporary blocks per level (Winograd's schedule).
+ * the error is bounded in norm rather than entry by entry, entries much smaller than the norm of their row of m1
+ * times the norm of their column of m2 lose relative accuracy (see the accuracy report of the benchmarks)
+ */
+public class StrassenMultiplication {
+    private static volatile int _cutoff = 512;
+
+    /**
+     * @param cutoff represents the smallest dimension at or below which the blocked kernel is used
+     */
+    public static void setCutoff(int cutoff){
+        if (cutoff < 1)
+            throw new IllegalArgumentException("the cutoff must be positive");
+        _cutoff = cutoff;
+    }
+
+    public static int getCutoff(){
+        return _cutoff;
+    }
+
+    /**
+     * calculate the result of multiplication between two matrices of compatible dimensions
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand, its height must equal the width of m1
+     * @return the result of m1*m2
+     */
+    public static Matrix multiply(Matrix m1, Matrix m2){
+        int n = m1.getHeight(), k = m1.getWidth(), w = m2.getWidth();
+        int cutoff = _cutoff;
+        if (Math.min(n, Math.min(k, w)) <= cutoff)
+            return BlockedMultiplication.multiply(m1, m2);
+
+        // 7^depth parallel products are enough to keep every thread of the pool busy
+        int parallelism = BlockedMultiplication.getPool().getParallelism();
+        int levels = 0;
+        for (long tasks = 1; tasks < parallelism; tasks *= 7)
+            levels++;
+        int depth = levels;
+
+        Matrix result = new Matrix(w, n);
+        Block a = new Block(Matrix.rowMajor(m1).getData(), 0, k, n, k);
+        Block b = new Block(Matrix.rowMajor(m2).getData(), 0, w, k, w);
+        Block c = new Block(result.getData(), 0, w, n, w);
+        if (depth == 0)
+            product(a, b, c, cutoff, 0);
+        else
+            // the parallel products are forked on the pool only from one of its own threads
+            BlockedMultiplication.getPool().invoke(task(() -> product(a, b, c, cutoff, depth)));
+        return result;
+    }
+
+    // c := a*b
+    private static void product(Block a, Block b, Block c, int cutoff, int depth){
+        int n = a._rows, k = a._cols, w = b._cols;
+        if (Math.min(n, Math.min(k, w)) <= cutoff) {
+            classic(a, b, c);
+            return;
+        }
+
+        int ne = n & ~1, ke = k & ~1, we = w & ~1;
+        Block a0 = a.sub(0, 0, ne, ke), b0 = b.sub(0, 0, ke, we), c0 = c.sub(0, 0, ne, we);
+        if (depth > 0)
+            parallelStep(a0, b0, c0, cutoff, depth - 1);
+        else
+            step(a0, b0, c0, cutoff);
+
+        // the peeled inner index adds a rank one update, the peeled column and row are matrix-vector products
+        if (ke < k)
+            for (int y = 0; y < ne; y++) {
+                double multiple = a.get(y, k - 1);
+                for (int x = 0; x < we; x++)
+                    c.add(y, x, multiple * b.get(k - 1, x));
+            }
+        if (we < w)
+            for (int y = 0; y < n; y++)
+                c.set(y, w - 1, dot(a, y, b, w - 1));
+        if (ne < n)
+            for (int x = 0; x < we; x++)
+                c.set(n - 1, x, dot(a, n - 1, b, x));
+    }
+
+    // one level of Strassen-Winograd on even dimensions with two temporary blocks, c is used as workspace
+    private static void step(Block a, Block b, Block c, int cutoff){
+        int n = a._rows / 2, k = a._cols / 2, w = b._cols / 2;
+        Block a11 = a.sub(0, 0, n, k), a12 = a.sub(0, k, n, k), a21 = a.sub(n, 0, n, k), a22 = a.sub(n, k, n, k);
+        Block b11 = b.sub(0, 0, k, w), b12 = b.sub(0, w, k, w), b21 = b.sub(k, 0, k, w), b22 = b.sub(k, w, k, w);
+        Block c11 = c.sub(0, 0, n, w), c12 = c.sub(0, w, n, w), c21 = c.sub(n, 0, n, w), c22 = c.sub(n, w, n, w);
+        Block x = new Block(n, k), y = new Block(k, w), z = new Block(n, w);
+
+        combine(x, a11, -1, a21);                   // s3
+        combine(y, b22, -1, b12);                   // t3
+        product(x, y, c21, cutoff, 0);              // p7
+        combine(x, a21, 1, a22);                    // s1
+        combine(y, b12, -1, b11);                   // t1
+        product(x, y, c22, cutoff, 0);              // p5
+        combine(x, x, -1, a11);                     // s2
+        combine(y, b22, -1, y);                     // t2
+        product(x, y, c12, cutoff, 0);              // p6
+        combine(x, a12, -1, x);                     // s4
+        product(x, b22, c11, cutoff, 0);            // p3
+        product(a11, b11, z, cutoff, 0);            // p1
+        combine(c12, z, 1, c12);                    // u2 = p1 + p6
+        combine(c21, c12, 1, c21);                  // u3 = u2 + p7
+        combine(c12, c12, 1, c22);                  // u4 = u2 + p5
+        combine(c22, c21, 1, c22);                  // u7 = u3 + p5
+        combine(c12, c12, 1, c11);                  // u5 = u4 + p3
+        combine(y, y, -1, b21);                     // t4 = t2 - b21
+        product(a22, y, c11, cutoff, 0);            // p4
+        combine(c21, c21, -1, c11);                 // u6 = u3 - p4
+        product(a12, b21, c11, cutoff, 0);          // p2
+        combine(c11, z, 1, c11);                    // u1 = p1 + p2
+    }
+
+    // one level of Strassen-Winograd on even dimensions with the 7 products calculated in parallel
+    private static void parallelStep(Block a, Block b, Block c, int cutoff, int depth){
+        int n = a._rows / 2, k = a._cols / 2, w = b._cols / 2;
+        Block a11 = a.sub(0, 0, n, k), a12 = a.sub(0, k, n, k), a21 = a.sub(n, 0, n, k), a22 = a.sub(n, k, n, k);
+        Block b11 = b.sub(0, 0, k, w), b12 = b.sub(0, w, k, w), b21 = b.sub(k, 0, k, w), b22 = b.sub(k, w, k, w);
+        Block[] p = new Block[7];
+        for (int i = 0; i < p.length; i++)
+            p[i] = new Block(n, w);
+
+        // every task builds its own operands, in the same order of additions as the sequential step
+        ForkJoinTask.invokeAll(
+                task(() -> product(a11, b11, p[0], cutoff, depth)),
+                task(() -> product(a12, b21, p[1], cutoff, depth)),
+                task(() -> {
+                    Block s = new Block(n, k);
+                    combine(s, a21, 1, a22);
+                    combine(s, s, -1, a11);
+                    combine(s, a12, -1, s);
+                    product(s, b22, p[2], cutoff, depth);
+                }),
+                task(() -> {
+                    Block t = new Block(k, w);
+                    combine(t, b12, -1, b11);
+                    combine(t, b22, -1, t);
+                    combine(t, t, -1, b21);
+                    product(a22, t, p[3], cutoff, depth);
+                }),
+                task(() -> {
+                    Block s = new Block(n, k), t = new Block(k, w);
+                    combine(s, a21, 1, a22);
+                    combine(t, b12, -1, b11);
+                    product(s, t, p[4], cutoff, depth);
+                }),
+                task(() -> {
+                    Block s = new Block(n, k), t = new Block(k, w);
+                    combine(s, a21, 1, a22);
+                    combine(s, s, -1, a11);
+                    combine(t, b12, -1, b11);
+                    combine(t, b22, -1, t);
+                    product(s, t, p[5], cutoff, depth);
+                }),
+                task(() -> {
+                    Block s = new Block(n, k), t = new Block(k, w);
+                    combine(s, a11, -1, a21);
+                    combine(t, b22, -1, b12);
+                    product(s, t, p[6], cutoff, depth);
+                }));
+
+        for (int y = 0; y < n; y++)
+            for (int x = 0; x < w; x++) {
+                double p1 = p[0].get(y, x), p5 = p[4].get(y, x);
+                double u2 = p1 + p[5].get(y, x);
+                double u3 = u2 + p[6].get(y, x);
+                c.set(y, x, p1 + p[1].get(y, x));
+                c.set(y, w + x, (u2 + p5) + p[2].get(y, x));
+                c.set(n + y, x, u3 - p[3].get(y, x));
+                c.set(n + y, w + x, u3 + p5);
+            }
+    }
+
+    // a task of the pool, its allocations count for the instrumented call of the thread that creates it
+    private static RecursiveAction task(Runnable runnable){
+        Metrics.Timer timer = Metrics.current();
+        return new RecursiveAction() {
+            @Override
+            @SuppressWarnings("try")
+            protected void compute() {
+                try (Metrics.Span span = Metrics.join(timer)) {
+                    runnable.run();
+                }
+            }
+        };
+    }
+
+    // dst := m1 + sign * m2, dst may be m1 or m2
+    private static void combine(Block dst, Block m1, double sign, Block m2){
+        for (int y = 0; y < dst._rows; y++) {
+            int d = dst.index(y, 0), i1 = m1.index(y, 0), i2 = m2.index(y, 0);
+            for (int x = 0; x < dst._cols; x++)
+                dst._data[d + x] = m1._data[i1 + x] + sign * m2._data[i2 + x];
+        }
+    }
+
+    private static double dot(Block a, int y, Block b, int x){
+        double sum = 0;
+        for (int i = 0; i < a._cols; i++)
+            sum += a.get(y, i) * b.get(i, x);
+        return sum;
+    }
+
+    // c := a*b with the blocked kernel, the blocks are packed into contiguous matrices
+    private static void classic(Block a, Block b, Block c){
+        Matrix m1 = new Matrix(a._cols, a._rows);
+        Matrix m2 = new Matrix(b._cols, b._rows, Matrix.Layout.COLUMN_MAJOR, new double[b._rows * b._cols]);
+        double[] left = m1.getData(), right = m2.getData();
+        for (int y = 0; y < a._rows; y++)
+            System.arraycopy(a._data, a.index(y, 0), left, y * a._cols, a._cols);
+        for (int y = 0; y < b._rows; y++)
+            for (int x = 0, i = b.index(y, 0); x < b._cols; x++, i++)
+                right[x * b._rows + y] = b._data[i];
+
+        Matrix result = BlockedMultiplication.multiply(m1, m2);
+        double[] data = result.getData();
+        for (int y = 0; y < c._rows; y++)
+            System.arraycopy(data, y * c._cols, c._data, c.index(y, 0), c._cols);
+    }
+
+    // a row-major view of a rectangle of an array
+    private static class Block {
+        private final double[] _data;
+        private final int _offset, _stride, _rows, _cols;
+
+        Block(int rows, int cols){
+            this(new double[rows * cols], 0, cols, rows, cols);
+        }
+
+        Block(double[] data, int offset, int stride, int rows, int cols){
+            _data = data;
+            _offset = offset;
+            _stride = stride;
+            _rows = rows;
+            _cols = cols;
+        }
+
+        Block sub(int row, int col, int rows, int cols){
+            return new Block(_data, index(row, col), _stride, rows, cols);
+        }
+
+        int index(int row, int col){
+            return _offset + row * _stride + col;
+        }
+
+        double get(int row, int col){
+            return _data[index(row, col)];
+        }
+
+        void set(int row, int col, double val){
+            _data[index(row, col)] = val;
+        }
+
+        void add(int row, int col, double val){
+            _data[index(row, col)] += val;
+        }
+    }
+}
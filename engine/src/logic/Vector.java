@@ -0,0 +1,103 @@
+package logic;
+
+import logic.exceptions.NotAVectorException;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+
+/**
+ * a vector of primitive doubles, the operand of VectorCalculations. it is either a new array or a view of the
+ * values of a vector matrix (a matrix with a single row or column), changes to a view change the matrix
+ */
+public class Vector {
+    private final double[] _values;
+
+    /**
+     * create a zero vector
+     * @param length represents the amount of values
+     */
+    public Vector(int length){
+        this(new double[length]);
+    }
+
+    /**
+     * wrap the given values without copying them
+     * @param values represents the values of the vector
+     */
+    public Vector(double... values){
+        _values = values;
+    }
+
+    /**
+     * view the values of a vector matrix without copying them
+     * @param m represents a matrix with a single row or column
+     * @return a vector of the values of m, in order
+     * @throws NotAVectorException in case m isn't a vector (height and width are neither 1)
+     */
+    public static Vector of(Matrix m) throws NotAVectorException {
+        if (m.getWidth() != 1 && m.getHeight() != 1)
+            throw new NotAVectorException();
+
+        // a vector is contiguous in both layouts
+        return new Vector(m.getData());
+    }
+
+    public int length(){
+        return _values.length;
+    }
+
+    public double get(int i){
+        return _values[i];
+    }
+
+    public void set(int i, double val){
+        _values[i] = val;
+    }
+
+    /**
+     * @return a copy of the values
+     */
+    public double[] toArray(){
+        return _values.clone();
+    }
+
+    /**
+     * @return a new column matrix (length x 1) with the values of the vector
+     */
+    public Matrix toMatrix(){
+        return new Matrix(1, _values.length, Matrix.Layout.ROW_MAJOR, _values.clone());
+    }
+
+    /**
+     * @return an iterator that goes through the values in order, without boxing them (see nextDouble)
+     */
+    public PrimitiveIterator.OfDouble iterator(){
+        return Spliterators.iterator(stream().spliterator());
+    }
+
+    public DoubleStream stream(){
+        return Arrays.stream(_values);
+    }
+
+    // the backing array, for the kernels that walk it directly
+    double[] getData(){
+        return _values;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector v && Arrays.equals(_values, v._values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(_values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(_values);
+    }
+}
@@ -0,0 +1,183 @@
+package logic;
+
+import logic.exceptions.IncompatibleDimensionsException;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * operations on primitive vectors that don't allocate. the reductions (dot product and norms) of long vectors are
+ * split into halves until they are shorter than the parallel threshold and summed in parallel, on the pool of
+ * BlockedMultiplication. the split only depends on the length, so the result doesn't depend on the scheduling
+ */
+public class VectorCalculations {
+    private static volatile int _parallelThreshold = 1 << 18;
+
+    /**
+     * @param threshold represents the length below which a reduction is calculated on the calling thread
+     */
+    public static void setParallelThreshold(int threshold){
+        if (threshold < 1)
+            throw new IllegalArgumentException("the parallel threshold must be positive");
+        _parallelThreshold = threshold;
+    }
+
+    public static int getParallelThreshold(){
+        return _parallelThreshold;
+    }
+
+    /**
+     * calculate the dot product of two vectors
+     * @param v1 represents the left (first) operand
+     * @param v2 represents the right (second) operand
+     * @return the sum of v1[i]*v2[i]
+     * @throws IncompatibleDimensionsException in case the vectors don't have the same length
+     */
+    public static double dot(Vector v1, Vector v2) throws IncompatibleDimensionsException {
+        if (v1.length() != v2.length())
+            throw new IncompatibleDimensionsException();
+
+        return reduce(Reduction.DOT, v1.getData(), v2.getData());
+    }
+
+    /**
+     * @param v represents the vector operand
+     * @return the L1 norm of v, the sum of |v[i]|
+     */
+    public static double norm1(Vector v){
+        return reduce(Reduction.SUM_OF_ABS, v.getData(), null);
+    }
+
+    /**
+     * @param v represents the vector operand
+     * @return the L2 (euclidean) norm of v, the square root of the sum of v[i]^2
+     */
+    public static double norm2(Vector v){
+        return Math.sqrt(reduce(Reduction.SUM_OF_SQUARES, v.getData(), null));
+    }
+
+    /**
+     * @param v represents the vector operand
+     * @return the infinity norm of v, the maximum of |v[i]|
+     */
+    public static double normInf(Vector v){
+        return reduce(Reduction.MAX_ABS, v.getData(), null);
+    }
+
+    /**
+     * add a scaled vector to another vector, y := alpha*x + y
+     * @param alpha represents the scalar x is multiplied by
+     * @param x represents the vector to add
+     * @param y represents the vector to change, it may be x itself
+     * @return y, holding alpha*x + y
+     * @throws IncompatibleDimensionsException in case the vectors don't have the same length
+     */
+    public static Vector axpy(double alpha, Vector x, Vector y) throws IncompatibleDimensionsException {
+        if (x.length() != y.length())
+            throw new IncompatibleDimensionsException();
+
+        Kernels.get().axpy(alpha, x.getData(), 0, y.getData(), 0, y.length());
+        return y;
+    }
+
+    /**
+     * multiply a vector by a scalar, v := c*v
+     * @param v represents the vector to change
+     * @param scalar represents the scalar operand
+     * @return v, holding c*v
+     */
+    public static Vector scale(Vector v, double scalar){
+        double[] data = v.getData();
+        Kernels.get().scale(data, 0, scalar, data, 0, data.length);
+        return v;
+    }
+
+    /**
+     * normalize a vector (by its L2 norm)
+     * @param v represents the vector to change, a zero vector becomes NaN
+     * @return v, holding v/|v|
+     */
+    public static Vector normalize(Vector v){
+        try {
+            return normalize(v, v);
+        } catch (IncompatibleDimensionsException e) {
+            // a vector always has its own length
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * write the normalized form of a vector (by its L2 norm) into a given vector
+     * @param v represents the vector operand, a zero vector gives NaN
+     * @param dst represents the vector to write the result into, it may be v itself
+     * @return dst, holding v/|v|
+     * @throws IncompatibleDimensionsException in case the vectors don't have the same length
+     */
+    public static Vector normalize(Vector v, Vector dst) throws IncompatibleDimensionsException {
+        if (v.length() != dst.length())
+            throw new IncompatibleDimensionsException();
+
+        double norm = norm2(v);
+        double[] a = v.getData(), c = dst.getData();
+        for (int i = 0; i < a.length; i++)
+            c[i] = a[i] / norm;
+
+        return dst;
+    }
+
+    private enum Reduction {
+        DOT,
+        SUM_OF_SQUARES,
+        SUM_OF_ABS,
+        MAX_ABS;
+
+        double apply(double[] a, double[] b, int from, int to){
+            Kernels kernels = Kernels.get();
+            return switch (this) {
+                case DOT -> kernels.dot(a, 0, b, 0, from, to);
+                case SUM_OF_SQUARES -> kernels.sumOfSquares(a, from, to - from);
+                case SUM_OF_ABS -> kernels.sumOfAbs(a, from, to - from);
+                case MAX_ABS -> kernels.maxAbs(a, from, to - from);
+            };
+        }
+
+        double combine(double left, double right){
+            return this == MAX_ABS ? Math.max(left, right) : left + right;
+        }
+    }
+
+    private static double reduce(Reduction reduction, double[] a, double[] b){
+        int threshold = _parallelThreshold;
+        if (a.length < 2 * threshold)
+            return reduction.apply(a, b, 0, a.length);
+
+        return BlockedMultiplication.getPool().invoke(new ReduceTask(reduction, a, b, threshold, 0, a.length));
+    }
+
+    // splits the range in halves until it is shorter than twice the threshold
+    private static class ReduceTask extends RecursiveTask<Double> {
+        private final Reduction _reduction;
+        private final double[] _a, _b;
+        private final int _threshold, _from, _to;
+
+        ReduceTask(Reduction reduction, double[] a, double[] b, int threshold, int from, int to){
+            _reduction = reduction;
+            _a = a;
+            _b = b;
+            _threshold = threshold;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (_to - _from < 2 * _threshold)
+                return _reduction.apply(_a, _b, _from, _to);
+
+            int mid = (_from + _to) >>> 1;
+            ReduceTask right = new ReduceTask(_reduction, _a, _b, _threshold, mid, _to);
+            right.fork();
+            double left = new ReduceTask(_reduction, _a, _b, _threshold, _from, mid).compute();
+            return _reduction.combine(left, right.join());
+        }
+    }
+}
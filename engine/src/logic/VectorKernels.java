@@ -0,0 +1,133 @@
+package logic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * the kernels with SIMD loops of the vector API, loaded (only) by Kernels when the module is available.
+ * the elementwise kernels do the same operations in the same order as the scalar ones, so their results are
+ * identical. the sums (sumOfSquares, sumOfAbs, dot, dot2x2) are split into a partial sum per lane, so they are rounded
+ * differently than the sequential scalar sums
+ */
+class VectorKernels extends Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    String name(){
+        return "vector";
+    }
+
+    @Override
+    void add(double[] a, double[] b, double sign, double[] c, int length){
+        DoubleVector vs = DoubleVector.broadcast(SPECIES, sign);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            va.add(vb.mul(vs)).intoArray(c, i);
+        }
+        for (; i < length; i++)
+            c[i] = a[i] + sign * b[i];
+    }
+
+    @Override
+    void scale(double[] a, int aOffset, double scalar, double[] c, int cOffset, int length){
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            DoubleVector.fromArray(SPECIES, a, aOffset + i).mul(scalar).intoArray(c, cOffset + i);
+        for (; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * scalar;
+    }
+
+    @Override
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length){
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+            vy.add(vx.mul(alpha)).intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    @Override
+    double sumOfSquares(double[] a, int offset, int length){
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, a, offset + i);
+            sum = v.fma(v, sum);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            result += a[offset + i] * a[offset + i];
+        return result;
+    }
+
+    @Override
+    double sumOfAbs(double[] a, int offset, int length){
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            sum = sum.add(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            result += Math.abs(a[offset + i]);
+        return result;
+    }
+
+    @Override
+    double maxAbs(double[] a, int offset, int length){
+        DoubleVector max = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            max = max.max(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++)
+            result = Math.max(result, Math.abs(a[offset + i]));
+        return result;
+    }
+
+    @Override
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int from, int to){
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length())
+            sum = DoubleVector.fromArray(SPECIES, a, aOffset + i).fma(DoubleVector.fromArray(SPECIES, b, bOffset + i), sum);
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++)
+            result += a[aOffset + i] * b[bOffset + i];
+        return result;
+    }
+
+    @Override
+    void dot2x2(double[] a, int a0, int a1, double[] b, int b0, int b1, int from, int to, double[] sums){
+        DoubleVector c00 = DoubleVector.zero(SPECIES), c01 = c00, c10 = c00, c11 = c00;
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector va0 = DoubleVector.fromArray(SPECIES, a, a0 + i), va1 = DoubleVector.fromArray(SPECIES, a, a1 + i);
+            DoubleVector vb0 = DoubleVector.fromArray(SPECIES, b, b0 + i), vb1 = DoubleVector.fromArray(SPECIES, b, b1 + i);
+            c00 = va0.fma(vb0, c00);
+            c01 = va0.fma(vb1, c01);
+            c10 = va1.fma(vb0, c10);
+            c11 = va1.fma(vb1, c11);
+        }
+
+        double s00 = c00.reduceLanes(VectorOperators.ADD), s01 = c01.reduceLanes(VectorOperators.ADD);
+        double s10 = c10.reduceLanes(VectorOperators.ADD), s11 = c11.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double va0 = a[a0 + i], va1 = a[a1 + i];
+            double vb0 = b[b0 + i], vb1 = b[b1 + i];
+            s00 += va0 * vb0;
+            s01 += va0 * vb1;
+            s10 += va1 * vb0;
+            s11 += va1 * vb1;
+        }
+        sums[0] = s00;
+        sums[1] = s01;
+        sums[2] = s10;
+        sums[3] = s11;
+    }
+}
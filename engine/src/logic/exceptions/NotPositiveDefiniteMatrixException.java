@@ -0,0 +1,4 @@
+package logic.exceptions;
+
+public class NotPositiveDefiniteMatrixException extends MatrixOperationException {
+}
@@ -0,0 +1,181 @@
+package logic.io;
+
+import logic.Matrix;
+import logic.MatrixView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * a matrix file mapped into memory, the values are read and written in place through the page cache without being
+ * copied into the heap, so it can be larger than the heap. a single mapping is limited to 2GB, so the values are
+ * mapped in consecutive segments
+ */
+public class MappedMatrix implements MatrixView, Closeable {
+    // values per mapped segment (1GB), a power of two so the segment of a value is a shift away
+    private static final int SEGMENT_SHIFT = 27;
+    private static final int SEGMENT_VALUES = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_VALUES - 1;
+
+    private final FileChannel _channel;
+    private final MappedByteBuffer[] _mappings;
+    private final DoubleBuffer[] _segments;
+    private final int _width;
+    private final int _height;
+    private final Matrix.Layout _layout;
+    private final boolean _isWritable;
+
+    MappedMatrix(FileChannel channel, int width, int height, Matrix.Layout layout, boolean isWritable) throws IOException {
+        _channel = channel;
+        _width = width;
+        _height = height;
+        _layout = layout;
+        _isWritable = isWritable;
+
+        long values = (long) width * height;
+        int count = (int) ((values + SEGMENT_VALUES - 1) / SEGMENT_VALUES);
+        _mappings = new MappedByteBuffer[count];
+        _segments = new DoubleBuffer[count];
+        FileChannel.MapMode mode = isWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int i = 0; i < count; i++) {
+            long first = (long) i * SEGMENT_VALUES;
+            long size = Math.min(SEGMENT_VALUES, values - first);
+            _mappings[i] = channel.map(mode, MatrixFile.HEADER_SIZE + 8 * first, 8 * size);
+            _segments[i] = _mappings[i].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    @Override
+    public int getWidth(){
+        return _width;
+    }
+
+    @Override
+    public int getHeight(){
+        return _height;
+    }
+
+    public Matrix.Layout getLayout(){
+        return _layout;
+    }
+
+    public boolean isWritable(){
+        return _isWritable;
+    }
+
+    @Override
+    public double get(int x, int y){
+        long i = index(x, y);
+        return _segments[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK));
+    }
+
+    public void set(int x, int y, double val){
+        long i = index(x, y);
+        _segments[(int) (i >>> SEGMENT_SHIFT)].put((int) (i & SEGMENT_MASK), val);
+    }
+
+    /**
+     * copy a row into a given array
+     * @param y represents the index of the row
+     * @param dst represents the array to copy into, from index 0 (must hold at least width values)
+     */
+    public void readRow(int y, double[] dst){
+        readRows(y, 1, dst);
+    }
+
+    /**
+     * copy consecutive rows into a given array, one after the other (row major)
+     * @param y represents the index of the first row
+     * @param count represents the amount of rows
+     * @param dst represents the array to copy into, from index 0 (must hold at least count * width values)
+     */
+    public void readRows(int y, int count, double[] dst){
+        if (_layout == Matrix.Layout.ROW_MAJOR) {
+            transfer((long) y * _width, dst, 0, count * _width, false);
+        } else {
+            for (int r = 0; r < count; r++)
+                for (int x = 0; x < _width; x++)
+                    dst[r * _width + x] = get(x, y + r);
+        }
+    }
+
+    /**
+     * overwrite a row
+     * @param y represents the index of the row
+     * @param src represents the new values, from index 0 (must hold at least width values)
+     */
+    public void writeRow(int y, double[] src){
+        writeRows(y, 1, src);
+    }
+
+    /**
+     * overwrite consecutive rows with the values of a given (row major) array
+     * @param y represents the index of the first row
+     * @param count represents the amount of rows
+     * @param src represents the new values, from index 0 (must hold at least count * width values)
+     */
+    public void writeRows(int y, int count, double[] src){
+        if (_layout == Matrix.Layout.ROW_MAJOR) {
+            transfer((long) y * _width, src, 0, count * _width, true);
+        } else {
+            for (int r = 0; r < count; r++)
+                for (int x = 0; x < _width; x++)
+                    set(x, y + r, src[r * _width + x]);
+        }
+    }
+
+    @Override
+    public Matrix toMatrix(){
+        Matrix result = new Matrix(_width, _height, true, _layout);
+        double[] row = new double[_width];
+        for (int y = 0; y < _height; y++) {
+            readRow(y, row);
+            result.setRow(y, row);
+        }
+        return result;
+    }
+
+    /**
+     * write the changes back to the file
+     */
+    public void force(){
+        if (_isWritable)
+            for (MappedByteBuffer mapping : _mappings)
+                mapping.force();
+    }
+
+    /**
+     * write the changes back to the file and close it, the mapping itself is released once it is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        _channel.close();
+    }
+
+    // bulk copy between the array and the values starting at the given value index, across segments
+    private void transfer(long first, double[] array, int offset, int length, boolean isWrite){
+        while (length > 0) {
+            int segment = (int) (first >>> SEGMENT_SHIFT);
+            int position = (int) (first & SEGMENT_MASK);
+            int chunk = Math.min(length, SEGMENT_VALUES - position);
+            if (isWrite)
+                _segments[segment].put(position, array, offset, chunk);
+            else
+                _segments[segment].get(position, array, offset, chunk);
+            first += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private long index(int x, int y){
+        if (x < 0 || x >= _width || y < 0 || y >= _height)
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") is outside of a " + _width + "x" + _height + " matrix");
+        return _layout == Matrix.Layout.ROW_MAJOR ? (long) y * _width + x : (long) x * _height + y;
+    }
+}
@@ -0,0 +1,142 @@
+package logic.io;
+
+import logic.Matrix;
+import logic.MatrixView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * the binary matrix file format, a 32 bytes little endian header followed by the raw values:
+ * <pre>
+ * offset 0   int   magic "MTRX"
+ * offset 4   int   format version (1)
+ * offset 8   int   width
+ * offset 12  int   height
+ * offset 16  byte  layout (0 row major, 1 column major)
+ * offset 17  byte  dtype (1 = 64 bit IEEE 754 double)
+ * offset 18  14 reserved bytes (zero)
+ * offset 32  width * height little endian doubles in the given layout
+ * </pre>
+ */
+public class MatrixFile {
+    static final int MAGIC = 0x5854524D; // "MTRX" read as a little endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final byte DTYPE_FLOAT64 = 1;
+
+    /**
+     * create a new zero filled matrix file (truncating an existing file) and map it for reading and writing
+     * @param path represents the file
+     * @param width represents the width of the matrix
+     * @param height represents the height of the matrix
+     * @param layout represents the order of the values in the file
+     * @return the mapped matrix, which must be closed
+     */
+    public static MappedMatrix create(Path path, int width, int height, Matrix.Layout layout) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            writeHeader(channel, width, height, layout);
+            // extending the file fills it with zeros (sparsely on most file systems)
+            long size = HEADER_SIZE + 8L * width * height;
+            if (size > HEADER_SIZE)
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            return new MappedMatrix(channel, width, height, layout, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * map an existing matrix file
+     * @param path represents the file
+     * @param writable represents whether changes through set and writeRow are allowed (and written to the file)
+     * @return the mapped matrix, which must be closed
+     */
+    public static MappedMatrix open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException(path + " is too short to be a matrix file");
+            header.flip();
+
+            if (header.getInt(0) != MAGIC)
+                throw new IOException(path + " is not a matrix file");
+            if (header.getInt(4) != VERSION)
+                throw new IOException(path + " has an unsupported format version " + header.getInt(4));
+            if (header.get(17) != DTYPE_FLOAT64)
+                throw new IOException(path + " has an unsupported dtype " + header.get(17));
+
+            int width = header.getInt(8), height = header.getInt(12);
+            Matrix.Layout layout = header.get(16) == 0 ? Matrix.Layout.ROW_MAJOR : Matrix.Layout.COLUMN_MAJOR;
+            if (channel.size() < HEADER_SIZE + 8L * width * height)
+                throw new IOException(path + " is shorter than its " + width + "x" + height + " values");
+
+            return new MappedMatrix(channel, width, height, layout, writable);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * write a matrix into a new matrix file (row major), one row at a time
+     * @param m represents the matrix to write
+     * @param path represents the file
+     */
+    public static void write(MatrixView m, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            writeHeader(channel, m.getWidth(), m.getHeight(), Matrix.Layout.ROW_MAJOR);
+            channel.position(HEADER_SIZE);
+
+            ByteBuffer row = ByteBuffer.allocate(8 * m.getWidth()).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = 0; y < m.getHeight(); y++) {
+                row.clear();
+                for (int x = 0; x < m.getWidth(); x++)
+                    row.putDouble(m.get(x, y));
+                row.flip();
+                while (row.hasRemaining())
+                    channel.write(row);
+            }
+        }
+    }
+
+    /**
+     * read a whole matrix file into memory
+     * @param path represents the file
+     * @return a matrix with the values (and layout) of the file
+     */
+    public static Matrix read(Path path) throws IOException {
+        try (MappedMatrix m = open(path, false)) {
+            return m.toMatrix();
+        }
+    }
+
+    static void writeHeader(FileChannel channel, int width, int height, Matrix.Layout layout) throws IOException {
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("negative dimensions " + width + "x" + height);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(width)
+                .putInt(height)
+                .put((byte) (layout == Matrix.Layout.ROW_MAJOR ? 0 : 1))
+                .put(DTYPE_FLOAT64);
+        header.clear();
+        int written = 0;
+        while (written < HEADER_SIZE)
+            written += channel.write(header, written);
+    }
+}
@@ -0,0 +1,198 @@
+package logic.io;
+
+import logic.Matrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.StringTokenizer;
+
+/**
+ * converts text matrix formats into matrix files, line by line, so the text is never loaded as a whole
+ */
+public class MatrixImport {
+
+    /**
+     * convert a CSV file (one row per line, values separated by commas) into a row major matrix file.
+     * empty lines are skipped, every row must have the same amount of values
+     * @param csv represents the text file
+     * @param out represents the matrix file to create
+     * @return the width and height of the matrix, as {width, height}
+     */
+    public static int[] csv(Path csv, Path out) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            channel.position(MatrixFile.HEADER_SIZE);
+
+            int width = -1, height = 0, lineNumber = 0;
+            ByteBuffer row = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+
+                String[] values = line.split(",", -1);
+                if (width == -1) {
+                    width = values.length;
+                    row = ByteBuffer.allocate(8 * width).order(ByteOrder.LITTLE_ENDIAN);
+                } else if (values.length != width) {
+                    throw new IOException(csv + ":" + lineNumber + " has " + values.length + " values instead of " + width);
+                }
+
+                row.clear();
+                for (String value : values)
+                    row.putDouble(parse(value.trim(), csv, lineNumber));
+                row.flip();
+                while (row.hasRemaining())
+                    channel.write(row);
+                height++;
+            }
+
+            width = Math.max(width, 0);
+            // the height is only known at the end, so the header is written last
+            MatrixFile.writeHeader(channel, width, height, Matrix.Layout.ROW_MAJOR);
+            return new int[]{width, height};
+        }
+    }
+
+    /**
+     * convert a Matrix Market exchange file into a matrix file. real, integer and pattern values are supported,
+     * in the coordinate format (general, symmetric and skew-symmetric) and the dense array format (general).
+     * an array file is written in column major order, the order of its values
+     * @param mtx represents the text file
+     * @param out represents the matrix file to create
+     * @return the width and height of the matrix, as {width, height}
+     */
+    public static int[] matrixMarket(Path mtx, Path out) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(mtx, StandardCharsets.UTF_8)) {
+            String banner = reader.readLine();
+            if (banner == null || !banner.toLowerCase(Locale.ROOT).startsWith("%%matrixmarket"))
+                throw new IOException(mtx + " doesn't start with a %%MatrixMarket banner");
+
+            String[] words = banner.trim().toLowerCase(Locale.ROOT).split("\\s+");
+            if (words.length < 5 || !words[1].equals("matrix"))
+                throw new IOException(mtx + " has an unsupported banner: " + banner);
+            String format = words[2], field = words[3], symmetry = words[4];
+            if (field.equals("complex"))
+                throw new IOException(mtx + " holds complex values, which are not supported");
+
+            // skip the comments until the size line
+            String line;
+            int lineNumber = 1;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null)
+                    throw new IOException(mtx + " has no size line");
+            } while (line.startsWith("%") || line.isBlank());
+
+            StringTokenizer size = new StringTokenizer(line);
+            int height = Integer.parseInt(size.nextToken());
+            int width = Integer.parseInt(size.nextToken());
+
+            if (format.equals("array")) {
+                if (!symmetry.equals("general"))
+                    throw new IOException(mtx + " is a " + symmetry + " array, only general arrays are supported");
+                return array(reader, mtx, out, width, height, lineNumber);
+            }
+            if (!format.equals("coordinate"))
+                throw new IOException(mtx + " has an unsupported format " + format);
+
+            try (MappedMatrix m = MatrixFile.create(out, width, height, Matrix.Layout.ROW_MAJOR)) {
+                boolean isPattern = field.equals("pattern");
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || line.startsWith("%"))
+                        continue;
+
+                    StringTokenizer entry = new StringTokenizer(line);
+                    int y = index(next(entry, mtx, lineNumber), height, mtx, lineNumber);
+                    int x = index(next(entry, mtx, lineNumber), width, mtx, lineNumber);
+                    double value = isPattern ? 1 : parse(next(entry, mtx, lineNumber), mtx, lineNumber);
+
+                    m.set(x, y, m.get(x, y) + value);
+                    if (x != y && symmetry.equals("symmetric"))
+                        m.set(y, x, m.get(y, x) + value);
+                    else if (x != y && symmetry.equals("skew-symmetric"))
+                        m.set(y, x, m.get(y, x) - value);
+                }
+            }
+            return new int[]{width, height};
+        }
+    }
+
+    // the values of a dense array come column after column, which is a column major file
+    private static int[] array(BufferedReader reader, Path mtx, Path out, int width, int height, int lineNumber) throws IOException {
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            MatrixFile.writeHeader(channel, width, height, Matrix.Layout.COLUMN_MAJOR);
+            channel.position(MatrixFile.HEADER_SIZE);
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            long expected = (long) width * height, count = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("%"))
+                    continue;
+
+                StringTokenizer values = new StringTokenizer(line);
+                while (values.hasMoreTokens()) {
+                    if (count++ == expected)
+                        throw new IOException(mtx + ":" + lineNumber + " has more than " + expected + " values");
+                    buffer.putDouble(parse(values.nextToken(), mtx, lineNumber));
+                    if (!buffer.hasRemaining())
+                        flush(buffer, channel);
+                }
+            }
+            flush(buffer, channel);
+
+            if (count != expected)
+                throw new IOException(mtx + " has " + count + " values instead of " + expected);
+            return new int[]{width, height};
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static String next(StringTokenizer tokens, Path file, int lineNumber) throws IOException {
+        if (!tokens.hasMoreTokens())
+            throw new IOException(file + ":" + lineNumber + " has too few values");
+        return tokens.nextToken();
+    }
+
+    // a one based index of a coordinate entry, returned zero based
+    private static int index(String value, int size, Path file, int lineNumber) throws IOException {
+        int index;
+        try {
+            index = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException(file + ":" + lineNumber + " has an invalid index \"" + value + "\"", e);
+        }
+        if (index < 1 || index > size)
+            throw new IOException(file + ":" + lineNumber + " has the index " + index + " out of the range 1 to " + size);
+        return index - 1;
+    }
+
+    private static double parse(String value, Path file, int lineNumber) throws IOException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IOException(file + ":" + lineNumber + " has an invalid number \"" + value + "\"", e);
+        }
+    }
+}
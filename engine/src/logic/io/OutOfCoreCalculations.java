@@ -0,0 +1,224 @@
+package logic.io;
+
+import logic.Matrix;
+import logic.exceptions.IncompatibleDimensionsException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * operations on matrix files that may be larger than the heap. the operands are streamed in blocks of rows,
+ * and only a bounded amount of rows (set by the memory budget) is held in the heap at any time.
+ * every operation writes its result into a new (row major) matrix file and returns it mapped, it must be closed
+ */
+public class OutOfCoreCalculations {
+    private static volatile long _budget = 64L << 20;
+
+    /**
+     * @param bytes represents the approximate heap memory a single operation may use for its row blocks
+     */
+    public static void setMemoryBudget(long bytes){
+        if (bytes < 8)
+            throw new IllegalArgumentException("the memory budget must hold at least one value");
+        _budget = bytes;
+    }
+
+    public static long getMemoryBudget(){
+        return _budget;
+    }
+
+    /**
+     * calculate the result of addition between two matrix files
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @param out represents the file of the result
+     * @return the result of m1+m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static MappedMatrix add(MappedMatrix m1, MappedMatrix m2, Path out) throws IOException, IncompatibleDimensionsException {
+        return elementwise(m1, m2, 1, out);
+    }
+
+    /**
+     * calculate the result of subtraction between two matrix files
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @param out represents the file of the result
+     * @return the result of m1-m2
+     * @throws IncompatibleDimensionsException in case the operands don't have the same dimensions
+     */
+    public static MappedMatrix sub(MappedMatrix m1, MappedMatrix m2, Path out) throws IOException, IncompatibleDimensionsException {
+        return elementwise(m1, m2, -1, out);
+    }
+
+    private static MappedMatrix elementwise(MappedMatrix m1, MappedMatrix m2, double sign, Path out) throws IOException, IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getWidth() || m1.getHeight() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        int width = m1.getWidth(), height = m1.getHeight();
+        MappedMatrix result = MatrixFile.create(out, width, height, Matrix.Layout.ROW_MAJOR);
+        // two blocks are held at a time
+        int rows = blockRows(2L * width, height);
+        double[] a = new double[rows * width], b = new double[rows * width];
+
+        for (int y = 0; y < height; y += rows) {
+            int count = Math.min(rows, height - y);
+            m1.readRows(y, count, a);
+            m2.readRows(y, count, b);
+            for (int i = 0; i < count * width; i++)
+                a[i] += sign * b[i];
+            result.writeRows(y, count, a);
+        }
+
+        return result;
+    }
+
+    /**
+     * calculate the transposed matrix of a matrix file
+     * @param m represents the matrix operand
+     * @param out represents the file of the result
+     * @return the result of m^t
+     */
+    public static MappedMatrix transpose(MappedMatrix m, Path out) throws IOException {
+        int width = m.getWidth(), height = m.getHeight();
+        MappedMatrix result = MatrixFile.create(out, height, width, Matrix.Layout.ROW_MAJOR);
+        int rows = blockRows(width, height);
+        double[] block = new double[rows * width];
+
+        // a block of rows of m is a block of columns of m^t, written as a contiguous run in every row of m^t
+        for (int y = 0; y < height; y += rows) {
+            int count = Math.min(rows, height - y);
+            m.readRows(y, count, block);
+            for (int x = 0; x < width; x++)
+                for (int r = 0; r < count; r++)
+                    result.set(y + r, x, block[r * width + x]);
+        }
+
+        return result;
+    }
+
+    /**
+     * calculate the result of multiplication between two matrix files. every block of rows of m1 is multiplied
+     * by m2 streamed in blocks of rows, so m2 is read once per block of m1
+     * @param m1 represents the left (first) operand
+     * @param m2 represents the right (second) operand
+     * @param out represents the file of the result
+     * @return the result of m1*m2
+     * @throws IncompatibleDimensionsException in case the width of m1 isn't the height of m2
+     */
+    public static MappedMatrix multiply(MappedMatrix m1, MappedMatrix m2, Path out) throws IOException, IncompatibleDimensionsException {
+        if (m1.getWidth() != m2.getHeight())
+            throw new IncompatibleDimensionsException();
+
+        int n = m1.getHeight(), k = m1.getWidth(), w = m2.getWidth();
+        MappedMatrix result = MatrixFile.create(out, w, n, Matrix.Layout.ROW_MAJOR);
+
+        // the budget is split between the block of m1 with its result block, and the block of m2
+        int rows = blockRows(2L * (k + w), n);
+        int inner = blockRows(2L * w, k);
+        double[] a = new double[rows * k], c = new double[rows * w], b = new double[inner * w];
+
+        for (int y = 0; y < n; y += rows) {
+            int count = Math.min(rows, n - y);
+            m1.readRows(y, count, a);
+            Arrays.fill(c, 0);
+
+            for (int i0 = 0; i0 < k; i0 += inner) {
+                int depth = Math.min(inner, k - i0);
+                m2.readRows(i0, depth, b);
+                for (int r = 0; r < count; r++)
+                    for (int i = 0; i < depth; i++) {
+                        double value = a[r * k + i0 + i];
+                        for (int x = 0, bi = i * w, ci = r * w; x < w; x++)
+                            c[ci + x] += value * b[bi + x];
+                    }
+            }
+
+            result.writeRows(y, count, c);
+        }
+
+        return result;
+    }
+
+    /**
+     * calculate the row echelon form (with leading ones) of a matrix file, by gaussian elimination with partial
+     * pivoting. every pivot streams the rows below it once, in blocks
+     * @param m represents the matrix operand
+     * @param out represents the file of the result
+     * @return the row echelon form of m
+     */
+    public static MappedMatrix rowEchelonForm(MappedMatrix m, Path out) throws IOException {
+        int width = m.getWidth(), height = m.getHeight();
+        MappedMatrix result = MatrixFile.create(out, width, height, Matrix.Layout.ROW_MAJOR);
+        int rows = blockRows(width, height);
+        double[] block = new double[rows * width];
+
+        // copy m into the result, which is then eliminated in place
+        for (int y = 0; y < height; y += rows) {
+            int count = Math.min(rows, height - y);
+            m.readRows(y, count, block);
+            result.writeRows(y, count, block);
+        }
+
+        double[] pivotRow = new double[width], other = new double[width];
+
+        int row = 0;
+        for (int col = 0; col < width && row < height; col++) {
+            int p = row;
+            double max = 0;
+            for (int i = row; i < height; i++) {
+                double abs = Math.abs(result.get(col, i));
+                if (abs > max) {
+                    max = abs;
+                    p = i;
+                }
+            }
+
+            // the column is zero from the current row downwards, it has no pivot
+            if (max == 0) {
+                for (int i = row; i < height; i++)
+                    result.set(col, i, 0);
+                continue;
+            }
+
+            result.readRow(p, pivotRow);
+            if (p != row) {
+                result.readRow(row, other);
+                result.writeRow(p, other);
+            }
+
+            // put a leading one in the pivot position
+            double pivot = pivotRow[col];
+            pivotRow[col] = 1;
+            for (int j = col + 1; j < width; j++)
+                pivotRow[j] /= pivot;
+            result.writeRow(row, pivotRow);
+
+            // put zeros below the pivot position
+            for (int y = row + 1; y < height; y += rows) {
+                int count = Math.min(rows, height - y);
+                result.readRows(y, count, block);
+                for (int r = 0; r < count; r++) {
+                    int offset = r * width;
+                    double multiple = block[offset + col];
+                    if (multiple != 0) {
+                        block[offset + col] = 0;
+                        for (int j = col + 1; j < width; j++)
+                            block[offset + j] -= multiple * pivotRow[j];
+                    }
+                }
+                result.writeRows(y, count, block);
+            }
+            row++;
+        }
+
+        return result;
+    }
+
+    // the amount of rows (of the given amount of values each) that fit in the budget, at least 1 and at most the height
+    private static int blockRows(long valuesPerRow, int height){
+        long rows = _budget / (8 * Math.max(1, valuesPerRow));
+        return (int) Math.max(1, Math.min(Math.min(rows, height), Integer.MAX_VALUE / Math.max(1, valuesPerRow)));
+    }
+}
@@ -0,0 +1,32 @@
+package logic.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * the JFR event of an instrumented operation, committed while the instrumentation is enabled and a recording
+ * enables the event (e.g. java -XX:StartFlightRecording ...)
+ */
+@Name("logic.MatrixOperation")
+@Label("Matrix Operation")
+@Category("Matrices Calculator")
+@Description("A call of an operation of MatrixCalculations")
+class MatrixOperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Flops")
+    long flops;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Matrix Copies")
+    long copies;
+}
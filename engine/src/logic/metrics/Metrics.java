@@ -0,0 +1,237 @@
+package logic.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the instrumentation of the operations: call counts, latency and size histograms, flops, allocated bytes and
+ * matrix copies of every operation (see OperationMetrics), exported over JMX (see registerMBeans) and as the JFR
+ * event logic.MatrixOperation. it is disabled unless the system property logic.metrics is "true" or it is enabled
+ * at runtime, and a disabled operation only reads a single volatile flag, so it can stay in production code:
+ * <pre>
+ * try (Metrics.Timer timer = Metrics.start(Operation.DET, width, height, flops)) {
+ *     ...
+ * }
+ * </pre>
+ * the allocations and copies of a call are counted on its own thread and on the threads of the pool that run the
+ * tasks it forks: a task takes the call of the thread that creates it (see current) and counts for it while it runs
+ * (see join). a thread of the pool that already counts for a call while it runs a task of another call counts the
+ * task for the first call
+ */
+public final class Metrics {
+    private static final OperationMetrics[] OPERATIONS = new OperationMetrics[Operation.values().length];
+    // the amount of copies made by every thread, only counted while enabled
+    private static final ThreadLocal<long[]> COPIES = ThreadLocal.withInitial(() -> new long[1]);
+    // the call that the allocations and copies of every thread count for
+    private static final ThreadLocal<Timer> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static volatile boolean _enabled = Boolean.getBoolean("logic.metrics");
+    private static boolean _registered;
+
+    static {
+        for (Operation operation : Operation.values())
+            OPERATIONS[operation.ordinal()] = new OperationMetrics(operation);
+    }
+
+    private Metrics(){
+    }
+
+    public static boolean isEnabled(){
+        return _enabled;
+    }
+
+    public static void setEnabled(boolean enabled){
+        _enabled = enabled;
+    }
+
+    /**
+     * @param operation represents the instrumented operation
+     * @return the metrics recorded for the operation
+     */
+    public static OperationMetrics get(Operation operation){
+        return OPERATIONS[operation.ordinal()];
+    }
+
+    /**
+     * clear the recorded metrics of every operation
+     */
+    public static void reset(){
+        for (OperationMetrics metrics : OPERATIONS)
+            metrics.reset();
+    }
+
+    /**
+     * register the control (logic.metrics:type=Metrics) and the metrics of every operation
+     * (logic.metrics:type=Operation,name=&lt;operation&gt;) in the platform MBean server, once
+     */
+    public static synchronized void registerMBeans(){
+        if (_registered)
+            return;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Control(), new ObjectName("logic.metrics:type=Metrics"));
+            for (OperationMetrics metrics : OPERATIONS)
+                server.registerMBean(metrics, new ObjectName("logic.metrics:type=Operation,name=" + metrics.getOperation()));
+        } catch (JMException e) {
+            throw new IllegalStateException("the metrics MBeans couldn't be registered", e);
+        }
+        _registered = true;
+    }
+
+    /**
+     * start timing a call of an operation
+     * @param operation represents the operation
+     * @param width represents the width of the (first) operand
+     * @param height represents the height of the (first) operand
+     * @param flops represents the (estimated) amount of floating point operations of the call
+     * @return the timer of the call, to be closed when the call returns, or null while disabled
+     */
+    public static Timer start(Operation operation, int width, int height, long flops){
+        return _enabled ? new Timer(operation, width, height, flops) : null;
+    }
+
+    /**
+     * @return the call running on this thread (or that a task running on it was forked by), to be given to the
+     * tasks it forks (see join), or null while disabled or if no call runs
+     */
+    public static Timer current(){
+        return _enabled ? CURRENT.get() : null;
+    }
+
+    /**
+     * count the allocations and copies of a forked task on the thread that runs it for the call that forked it,
+     * until the returned span is closed
+     * @param timer represents the call that forked the task (see current), may be null
+     * @return the span of the task, or null in case there's no call or this thread already counts for a call
+     */
+    public static Span join(Timer timer){
+        return timer == null || CURRENT.get() != null ? null : new Span(timer);
+    }
+
+    /**
+     * count a copy of a matrix for the operation running on this thread, while enabled
+     */
+    public static void countCopy(){
+        if (_enabled)
+            COPIES.get()[0]++;
+    }
+
+    /**
+     * @return the floating point operations of gaussian elimination of a matrix, sum of 2*(h-k)*(w-k) over the pivots
+     */
+    public static long eliminationFlops(int width, int height){
+        long r = Math.min(width, height), w = width, h = height;
+        return 2 * (r * h * w - (h + w) * r * (r - 1) / 2 + (r - 1) * r * (2 * r - 1) / 6);
+    }
+
+    private static long allocatedBytes(){
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads(){
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled())
+            return t;
+        return null;
+    }
+
+    /**
+     * a running call of an operation, closing it records the call
+     */
+    public static final class Timer implements AutoCloseable {
+        private final Operation _operation;
+        private final int _width, _height;
+        private final long _flops, _start, _allocated, _copies;
+        private final MatrixOperationEvent _event;
+        // the call this one runs in on the same thread, if any
+        private final Timer _parent;
+        // the allocations and copies of the tasks forked by the call, counted on the threads of the pool
+        private final LongAdder _forkedBytes = new LongAdder(), _forkedCopies = new LongAdder();
+
+        private Timer(Operation operation, int width, int height, long flops){
+            _parent = CURRENT.get();
+            CURRENT.set(this);
+            _operation = operation;
+            _width = width;
+            _height = height;
+            _flops = flops;
+            _copies = COPIES.get()[0];
+            _allocated = allocatedBytes();
+            _event = new MatrixOperationEvent();
+            _event.begin();
+            _start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - _start;
+            _event.end();
+            CURRENT.set(_parent);
+            long forkedBytes = _forkedBytes.sum(), forkedCopies = _forkedCopies.sum();
+            // the thread of the enclosing call counts the work of this thread already, but not the forked tasks
+            if (_parent != null) {
+                _parent._forkedBytes.add(forkedBytes);
+                _parent._forkedCopies.add(forkedCopies);
+            }
+            long bytes = allocatedBytes() - _allocated + forkedBytes;
+            long copies = COPIES.get()[0] - _copies + forkedCopies;
+            get(_operation).record(_width, _height, nanos, _flops, bytes, copies);
+
+            if (_event.shouldCommit()) {
+                _event.operation = _operation.name();
+                _event.width = _width;
+                _event.height = _height;
+                _event.flops = _flops;
+                _event.allocatedBytes = bytes;
+                _event.copies = copies;
+                _event.commit();
+            }
+        }
+    }
+
+    /**
+     * a forked task running on a thread of the pool, closing it counts the allocations and copies of the thread
+     * since it started for the call that forked the task
+     */
+    public static final class Span implements AutoCloseable {
+        private final Timer _timer;
+        private final long _allocated, _copies;
+
+        private Span(Timer timer){
+            _timer = timer;
+            CURRENT.set(timer);
+            _copies = COPIES.get()[0];
+            _allocated = allocatedBytes();
+        }
+
+        @Override
+        public void close() {
+            _timer._forkedBytes.add(allocatedBytes() - _allocated);
+            _timer._forkedCopies.add(COPIES.get()[0] - _copies);
+            CURRENT.remove();
+        }
+    }
+
+    private static class Control implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
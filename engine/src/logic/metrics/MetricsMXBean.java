@@ -0,0 +1,15 @@
+package logic.metrics;
+
+/**
+ * the JMX control of the instrumentation, registered as logic.metrics:type=Metrics
+ */
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * clear the recorded metrics of every operation
+     */
+    void reset();
+}
@@ -0,0 +1,21 @@
+package logic.metrics;
+
+/**
+ * the instrumented operations of MatrixCalculations
+ */
+public enum Operation {
+    DET,
+    ROW_ECHELON_FORM,
+    REDUCED_ROW_ECHELON_FORM,
+    INVERT,
+    ADJOINT,
+    SOLVE,
+    SOLVE_POSITIVE_DEFINITE,
+    LSTSQ,
+    MULTIPLY,
+    POWER,
+    MULTIPLY_SCALAR,
+    ADD,
+    SUB,
+    TRANSPOSE
+}
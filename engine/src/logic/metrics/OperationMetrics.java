@@ -0,0 +1,145 @@
+package logic.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the metrics recorded for a single operation, the counters are safe to update from many threads at once
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final Operation _operation;
+    private final LongAdder _count = new LongAdder();
+    private final LongAdder _nanos = new LongAdder();
+    private final LongAdder _flops = new LongAdder();
+    private final LongAdder _bytes = new LongAdder();
+    private final LongAdder _copies = new LongAdder();
+    // bucket i holds the values in [2^i, 2^(i+1)), bucket 0 also holds 0
+    private final AtomicLongArray _latencies = new AtomicLongArray(64);
+    private final AtomicLongArray _sizes = new AtomicLongArray(32);
+
+    OperationMetrics(Operation operation){
+        _operation = operation;
+    }
+
+    void record(int width, int height, long nanos, long flops, long bytes, long copies){
+        _count.increment();
+        _nanos.add(nanos);
+        _flops.add(flops);
+        _bytes.add(bytes);
+        _copies.add(copies);
+        _latencies.incrementAndGet(bucket(nanos));
+        _sizes.incrementAndGet(bucket(Math.max(width, height)));
+    }
+
+    private static int bucket(long value){
+        return value <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(value);
+    }
+
+    @Override
+    public String getOperation() {
+        return _operation.name();
+    }
+
+    @Override
+    public long getCount() {
+        return _count.sum();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return _nanos.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    @Override
+    public long getMedianNanos() {
+        return percentile(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return percentile(0.99);
+    }
+
+    /**
+     * @param fraction represents the fraction of calls, in [0, 1]
+     * @return the upper bound of the histogram bucket that holds the latency of the given fraction of the calls
+     */
+    public long percentile(double fraction){
+        long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram)
+            total += count;
+
+        long rank = (long) Math.ceil(fraction * total), seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0)
+                return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        return snapshot(_latencies);
+    }
+
+    @Override
+    public long[] getSizeHistogram() {
+        return snapshot(_sizes);
+    }
+
+    private static long[] snapshot(AtomicLongArray histogram){
+        long[] result = new long[histogram.length()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = histogram.get(i);
+        return result;
+    }
+
+    @Override
+    public long getFlops() {
+        return _flops.sum();
+    }
+
+    @Override
+    public double getFlopsPerSecond() {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : getFlops() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return _bytes.sum();
+    }
+
+    @Override
+    public long getCopies() {
+        return _copies.sum();
+    }
+
+    @Override
+    public void reset() {
+        _count.reset();
+        _nanos.reset();
+        _flops.reset();
+        _bytes.reset();
+        _copies.reset();
+        for (int i = 0; i < _latencies.length(); i++)
+            _latencies.set(i, 0);
+        for (int i = 0; i < _sizes.length(); i++)
+            _sizes.set(i, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, mean %.0f ns, median <= %d ns, p99 <= %d ns, %.3g flop/s, %d bytes, %d copies",
+                _operation, getCount(), getMeanNanos(), getMedianNanos(), getP99Nanos(), getFlopsPerSecond(),
+                getAllocatedBytes(), getCopies());
+    }
+}
@@ -0,0 +1,55 @@
+package logic.metrics;
+
+/**
+ * the metrics of a single operation over JMX, registered as logic.metrics:type=Operation,name=&lt;operation&gt;
+ */
+public interface OperationMetricsMXBean {
+    String getOperation();
+
+    long getCount();
+
+    long getTotalNanos();
+
+    double getMeanNanos();
+
+    /**
+     * @return the upper bound of the histogram bucket that holds the median latency
+     */
+    long getMedianNanos();
+
+    /**
+     * @return the upper bound of the histogram bucket that holds the 99th percentile latency
+     */
+    long getP99Nanos();
+
+    /**
+     * @return the amount of calls whose latency was in [2^i, 2^(i+1)) nanoseconds, for every i
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * @return the amount of calls whose larger dimension was in [2^i, 2^(i+1)), for every i (0 for empty operands)
+     */
+    long[] getSizeHistogram();
+
+    /**
+     * @return the total (estimated) amount of floating point operations
+     */
+    long getFlops();
+
+    double getFlopsPerSecond();
+
+    /**
+     * @return the bytes allocated during the calls, by the calling threads and by the threads of the pool that ran
+     * the tasks they forked
+     */
+    long getAllocatedBytes();
+
+    /**
+     * @return the amount of matrices copied during the calls, by the calling threads and by the threads of the pool
+     * that ran the tasks they forked
+     */
+    long getCopies();
+
+    void reset();
+}
@@ -1,19 +1,29 @@
 package gui;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.GridPane;
+import javafx.util.Duration;
 
+import logic.AsyncCalculations;
+import logic.Job;
 import logic.Matrix;
 import logic.MatrixCalculations;
 import logic.exceptions.*;
 
-import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 public class Controller {
+    // how often the progress of a running operation is shown
+    private static final Duration PROGRESS_INTERVAL = Duration.millis(100);
 
     @FXML
     public TextField _resultField;
@@ -22,22 +32,32 @@ public class Controller {
     private TextField _heightField;
 
     @FXML
-    private GridPane _resultGrid;
+    private MatrixTable _resultGrid;
 
     @FXML
-    private GridPane _leftGrid;
+    private MatrixTable _leftGrid;
 
     @FXML
     private ChoiceBox<String> _operationChoiceBox;
 
     @FXML
-    private GridPane _rightGrid;
+    private MatrixTable _rightGrid;
 
     @FXML
     private TextField _widthField;
 
+    @FXML
+    private ProgressIndicator _progressIndicator;
+
+    @FXML
+    private Button _executeButton;
+
+    @FXML
+    private Button _cancelButton;
+
     private Matrix _resultMatrix;
     private double _scalarResult;
+    private Job<Object> _job;
 
     public void init(){
         String[] items = {
@@ -51,7 +71,8 @@ public class Controller {
                 "Transpose",
                 "Diagonalize",
                 "Normalize",
-                "Adjoint Matrix"
+                "Adjoint Matrix",
+                "Solve"
         };
         _scalarResult = 0;
         _operationChoiceBox.getItems().addAll(items);
@@ -75,105 +96,67 @@ public class Controller {
     }
 
     private void resetMatrices(){
-        formatGridPanes(_leftGrid,_resultGrid,_rightGrid);
+        _leftGrid.setMatrix(new Matrix(getWidth(), getHeight()));
+        _rightGrid.setMatrix(new Matrix(getWidth(), getHeight()));
         _resultMatrix = new Matrix(getWidth(),getHeight());
-    }
-
-    private void formatGridPanes(GridPane...grids){
-        for (GridPane g : grids){
-            g.getChildren().clear();
-            g.getColumnConstraints().clear();
-            g.getRowConstraints().clear();
-            for (int x = 0; x < Integer.parseInt(_widthField.getText()); x++){
-                for (int y = 0; y < Integer.parseInt(_heightField.getText()); y++){
-                    TextField t = new TextField();
-                    g.add(t,x,y);
-                    if (g == _resultGrid)
-                        t.setEditable(false);
-                    formatTextFields(t);
-                }
-            }
-            g.setGridLinesVisible(true);
-        }
-    }
-
-    private void formatTextFields(TextField...fields){
-        for(TextField f : fields){
-            f.setAlignment(Pos.CENTER);
-            f.setText("0");
-            numericListener(f);
-        }
+        _resultGrid.setMatrix(_resultMatrix);
     }
 
     private void updateResult(){
-        for (int x = 0; x < getWidth(); x++)
-            for (int y = 0; y < getHeight(); y++)
-                set(x,y,Utils.formatDouble(_resultMatrix.get(x,y), false));
-
+        _resultGrid.setMatrix(_resultMatrix);
         _resultField.setText(Utils.formatDouble(_scalarResult, false));
     }
 
-    private void set(final int x, final int y, String s){
-        try {
-            ((TextField) Objects.requireNonNull(Utils.getNodeByCoordinates(x, y, _resultGrid))).setText(s);
-        } catch(ClassCastException | NullPointerException e){
-            e.printStackTrace();
-        }
-    }
-
+    /**
+     * run the chosen operation as a job (see AsyncCalculations), on copies of the operands so they can be edited
+     * meanwhile. the result is shown once the job ends, unless it is cancelled first
+     */
     @FXML
     void executeOperation(){
-        switch (_operationChoiceBox.getValue()) {
-            case "Add" -> add();
-            case "Subtract" -> subtract();
-            case "Multiply" -> multiply();
-            case "Row Echelon Form" -> rowEchelonForm();
-            case "Determinant" -> determinant();
-            case "Reduced Row Echelon Form" -> reducedRowEchelonForm();
-            case "Invert" -> invert();
-            case "Transpose" -> transpose();
-            case "Diagonalize" -> diagonalize();
-            case "Normalize" -> normalize();
-            case "Adjoint Matrix" -> adjoint();
-        }
-        
-        updateResult();
-    }
-
-    private void adjoint(){
-        try {
-            _resultMatrix = MatrixCalculations.adjoint(Matrix.gptom(_leftGrid));
-        } catch(NonSquareMatrixException e){
-            graphicError(e);
-        }
-    }
-
-    private void normalize(){
-        try {
-            _resultMatrix = MatrixCalculations.normalize(Matrix.gptom(_leftGrid));
-        } catch(NotAVectorException e){
-            graphicError(e);
-        }
+        if (_job != null)
+            return;
+
+        String operation = _operationChoiceBox.getValue();
+        Matrix left = new Matrix(_leftGrid.getMatrix()), right = new Matrix(_rightGrid.getMatrix());
+        Job<Object> job = AsyncCalculations.submit(() -> calculate(operation, left, right));
+        _job = job;
+
+        Timeline progress = new Timeline(new KeyFrame(PROGRESS_INTERVAL, event ->
+                _progressIndicator.setProgress(job.getTotal() == 0 ? ProgressIndicator.INDETERMINATE_PROGRESS : job.getProgress())));
+        progress.setCycleCount(Animation.INDEFINITE);
+        progress.play();
+        setRunning(true);
+
+        job.getFuture().whenComplete((result, e) -> Platform.runLater(() -> {
+            progress.stop();
+            setRunning(false);
+            _job = null;
+            if (e == null)
+                showResult(result);
+            else if (!(e instanceof CancellationException))
+                graphicError(e instanceof CompletionException ? e.getCause() : e);
+        }));
     }
 
-    private void diagonalize(){
-        try {
-            _resultMatrix = MatrixCalculations.diagonalize(Matrix.gptom(_leftGrid));
-        } catch(NonDiagonalizableMatrixException | NonSquareMatrixException e){
-            graphicError(e);
-        }
+    @FXML
+    void cancelOperation(){
+        if (_job != null)
+            _job.cancel();
     }
 
-    private void transpose(){
-        _resultMatrix = MatrixCalculations.transpose(Matrix.gptom(_leftGrid));
+    private void setRunning(boolean isRunning){
+        _progressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        _progressIndicator.setVisible(isRunning);
+        _cancelButton.setDisable(!isRunning);
+        _executeButton.setDisable(isRunning);
     }
 
-    private void invert() {
-        try {
-            _resultMatrix = MatrixCalculations.invert(Matrix.gptom(_leftGrid));
-        } catch (NonInvertibleMatrixException | NonSquareMatrixException e){
-            graphicError(e);
-        }
+    private void showResult(Object result){
+        if (result instanceof Matrix m)
+            _resultMatrix = m;
+        else
+            _scalarResult = (Double) result;
+        updateResult();
     }
 
     @FXML
@@ -192,41 +175,32 @@ public class Controller {
     }
 
     private void storeResult(boolean isLeft){
-        for (int x = 0; x < (isLeft ? _leftGrid : _rightGrid).getColumnCount(); x++)
-            for (int y = 0; y < (isLeft ? _leftGrid : _rightGrid).getRowCount(); y++)
-                ((TextField) Objects.requireNonNull(Utils.getNodeByCoordinates(x, y, isLeft ? _leftGrid : _rightGrid))).setText(Utils.formatDouble(_resultMatrix.get(x,y), true));
-    }
-
-    private void multiply() {
-        try {
-            _resultMatrix = MatrixCalculations.multiply(Matrix.gptom(_leftGrid),Matrix.gptom(_rightGrid));
-        } catch(IncompatibleDimensionsException e){
-            graphicError(e);
-        }
+        (isLeft ? _leftGrid : _rightGrid).setMatrix(new Matrix(_resultMatrix));
     }
 
-    private void subtract() {
-        _resultMatrix = MatrixCalculations.sub(Matrix.gptom(_leftGrid), Matrix.gptom(_rightGrid));
-    }
-
-    private void rowEchelonForm() {
-        _resultMatrix = MatrixCalculations.rowEchelonForm(Matrix.gptom(_leftGrid));
-    }
-
-    private void reducedRowEchelonForm() {
-        _resultMatrix = MatrixCalculations.reducedRowEchelonForm(Matrix.gptom(_leftGrid));
-    }
-
-    private void determinant() {
-        try {
-            _scalarResult = MatrixCalculations.det(Matrix.gptom(_leftGrid));
-        } catch(NonSquareMatrixException e){
-            graphicError(e);
-        }
-    }
-
-    private void add() {
-        _resultMatrix = MatrixCalculations.add(Matrix.gptom(_leftGrid), Matrix.gptom(_rightGrid));
+    /**
+     * calculate an operation
+     * @param operation represents the name of the operation, as in the choice box
+     * @param left represents the left operand
+     * @param right represents the right operand, for the operations of two matrices
+     * @return the result of the operation, a matrix or a scalar (Double)
+     */
+    private static Object calculate(String operation, Matrix left, Matrix right) throws MatrixOperationException {
+        return switch (operation) {
+            case "Add" -> MatrixCalculations.add(left, right);
+            case "Subtract" -> MatrixCalculations.sub(left, right);
+            case "Multiply" -> MatrixCalculations.multiply(left, right);
+            case "Determinant" -> MatrixCalculations.det(left);
+            case "Row Echelon Form" -> MatrixCalculations.rowEchelonForm(left);
+            case "Reduced Row Echelon Form" -> MatrixCalculations.reducedRowEchelonForm(left);
+            case "Invert" -> MatrixCalculations.invert(left);
+            case "Transpose" -> MatrixCalculations.transpose(left);
+            case "Diagonalize" -> MatrixCalculations.diagonalize(left);
+            case "Normalize" -> MatrixCalculations.normalize(left);
+            case "Adjoint Matrix" -> MatrixCalculations.adjoint(left);
+            case "Solve" -> MatrixCalculations.solve(left, right);
+            default -> throw new IllegalArgumentException("unknown operation: " + operation);
+        };
     }
 
     private int getWidth(){
@@ -237,9 +211,9 @@ public class Controller {
         return Integer.parseInt(_heightField.getText());
     }
 
-    private void graphicError(MatrixOperationException e){
+    private void graphicError(Throwable e){
         Alert a = new Alert(Alert.AlertType.ERROR, "Error");
-        a.setHeaderText("Error: bad input for the current operation");
+        a.setHeaderText(e instanceof MatrixOperationException ? "Error: bad input for the current operation" : "Error: the operation failed");
         a.setContentText(e.getMessage());
         a.showAndWait();
     }
@@ -0,0 +1,202 @@
+package gui;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import logic.Matrix;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a spreadsheet-style view of a matrix. the view reads and writes the values of the matrix directly, the rows of the
+ * table are only the row indices, and the table creates cells only for the rows and columns that are visible (every
+ * cell has the same fixed size), so any size of matrix is shown with a constant amount of nodes and every cell is
+ * read in O(1). a cell is edited by double clicking it or pressing enter (or F2) on it
+ */
+public class MatrixTable extends TableView<Integer> {
+    private static final double CELL_WIDTH = 80;
+    private static final double CELL_HEIGHT = 25;
+
+    private final Rows _rows = new Rows();
+    private Matrix _matrix;
+    private boolean _rounded;
+
+    public MatrixTable(){
+        setItems(_rows);
+        setFixedCellSize(CELL_HEIGHT);
+        setEditable(true);
+        getSelectionModel().setCellSelectionEnabled(true);
+        setColumnResizePolicy(UNCONSTRAINED_RESIZE_POLICY);
+
+        addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            TablePosition<Integer, ?> position = getFocusModel().getFocusedCell();
+            if ((event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.F2) && getEditingCell() == null
+                    && position != null && position.getTableColumn() != null) {
+                edit(position.getRow(), position.getTableColumn());
+                event.consume();
+            }
+        });
+        setMatrix(new Matrix(0, 0));
+    }
+
+    public Matrix getMatrix(){
+        return _matrix;
+    }
+
+    /**
+     * show a matrix, the view doesn't copy it, edits are written into it and changes made to it are shown on refresh
+     * @param m represents the matrix to show
+     */
+    public void setMatrix(Matrix m){
+        _matrix = m;
+        if (getColumns().size() != m.getWidth()) {
+            List<TableColumn<Integer, Double>> columns = new ArrayList<>(m.getWidth());
+            for (int x = 0; x < m.getWidth(); x++)
+                columns.add(column(x));
+            getColumns().setAll(columns);
+        }
+        _rows.setSize(m.getHeight());
+        refresh();
+    }
+
+    public boolean isRounded(){
+        return _rounded;
+    }
+
+    /**
+     * @param rounded represents whether the values are shown rounded to 3 decimal places (see Utils.formatDouble)
+     */
+    public void setRounded(boolean rounded){
+        _rounded = rounded;
+        refresh();
+    }
+
+    private TableColumn<Integer, Double> column(final int x){
+        TableColumn<Integer, Double> column = new TableColumn<>(Integer.toString(x + 1));
+        column.setPrefWidth(CELL_WIDTH);
+        column.setSortable(false);
+        column.setReorderable(false);
+        column.setCellValueFactory(features -> new ReadOnlyObjectWrapper<>(_matrix.get(x, features.getValue())));
+        column.setCellFactory(c -> new MatrixCell());
+        column.setOnEditCommit(event -> _matrix.set(x, event.getRowValue(), event.getNewValue()));
+        return column;
+    }
+
+    // the row indices 0 to height-1, without storing them
+    private static class Rows extends ObservableListBase<Integer> {
+        private int _size;
+
+        void setSize(int size){
+            int old = _size;
+            if (size == old)
+                return;
+
+            beginChange();
+            _size = size;
+            if (size > old)
+                nextAdd(old, size);
+            else
+                nextRemove(size, new AbstractList<Integer>() {
+                    @Override
+                    public Integer get(int index) {
+                        return size + index;
+                    }
+
+                    @Override
+                    public int size() {
+                        return old - size;
+                    }
+                });
+            endChange();
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= _size)
+                throw new IndexOutOfBoundsException(index);
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+    }
+
+    // a cell that shows a value of the matrix and edits it in a text field that only accepts numbers
+    private class MatrixCell extends TableCell<Integer, Double> {
+        private TextField _field;
+
+        @Override
+        public void startEdit() {
+            super.startEdit();
+            if (!isEditing())
+                return;
+
+            if (_field == null)
+                _field = field();
+            _field.setText(Utils.formatDouble(getItem(), true));
+            setText(null);
+            setGraphic(_field);
+            _field.selectAll();
+            _field.requestFocus();
+        }
+
+        @Override
+        public void cancelEdit() {
+            super.cancelEdit();
+            show(getItem());
+        }
+
+        @Override
+        protected void updateItem(Double item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setText(null);
+                setGraphic(null);
+            } else if (isEditing()) {
+                setText(null);
+                setGraphic(_field);
+            } else
+                show(item);
+        }
+
+        private void show(Double item){
+            setGraphic(null);
+            setText(item == null ? null : Utils.formatDouble(item, !_rounded));
+        }
+
+        private TextField field(){
+            TextField field = new TextField();
+            field.setTextFormatter(new TextFormatter<>(change ->
+                    change.getControlNewText().matches("-?\\d*(\\.\\d*)?([eE][-+]?\\d*)?") ? change : null));
+            field.setOnAction(event -> commit());
+            field.setOnKeyPressed(event -> {
+                if (event.getCode() == KeyCode.ESCAPE)
+                    cancelEdit();
+            });
+            field.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+                if (!isFocused && isEditing())
+                    commit();
+            });
+            return field;
+        }
+
+        private void commit(){
+            try {
+                commitEdit(Double.parseDouble(_field.getText()));
+            } catch (NumberFormatException e) {
+                cancelEdit();
+            }
+        }
+    }
+}